@@ -1,14 +1,31 @@
 package name.subroutine.etable;
 
-import java.lang.reflect.*;
+import java.util.concurrent.atomic.*;
 
 /**
  * Definition of a column.
  */
-public abstract class AbstractColumn implements Column {
+public abstract class AbstractColumn implements Column, Cloneable {
     public StringBuffer name;
     public int type;
 
+    /**
+     * The schema the column was interned into, and its place there, for as long
+     * as the column has not been changed through a setter since. A table whose
+     * columns are all still bound to its schema can look names up in the schema.
+     * Writing the public fields directly does not unbind the column, so lookups
+     * check the name of the column they find and fall back to going through the
+     * columns; see Schema.indexOf.
+     */
+    Schema schema;
+    int schemaIndex;
+
+    /**
+     * Number of times any column has been unbound, so that a ColumnList knows
+     * when to check its schema again
+     */
+    static final AtomicLong changes = new AtomicLong();
+
     public AbstractColumn() {
         name = new StringBuffer();
         type = -1;
@@ -32,6 +49,7 @@ public abstract class AbstractColumn implements Column {
     }
 
     public void setName(String n) {
+        unbind();
         name = new StringBuffer(n);
     }
 
@@ -39,9 +57,29 @@ public abstract class AbstractColumn implements Column {
      * Sets type
      */
     public void setType(int t) {
+        unbind();
         type = t;
     }
 
+    /**
+     * Unbinds the column from its schema, before it is changed
+     */
+    void unbind() {
+        if (schema != null) {
+            schema = null;
+            changes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the name buffer for appending to, as for a continued header. The
+     * column is no longer bound to its schema.
+     */
+    StringBuffer editName() {
+        unbind();
+        return name;
+    }
+
     /**
      * Returns type
      */
@@ -64,17 +102,19 @@ public abstract class AbstractColumn implements Column {
         return 0;
     }
 
+    /**
+     * Returns a copy of this column, of the same class and with all its
+     * properties. The name is copied too, so changing one does not change the
+     * other.
+     */
     public Object clone() {
         try {
-            Class<? extends AbstractColumn> c = getClass();
-
-            Constructor<? extends AbstractColumn> con;
-            con = c.getConstructor(new Class[] { String.class, int.class });
-
-            Object nu = con.newInstance(new Object[] { name.toString(), new Integer(type) });
+            AbstractColumn nu = (AbstractColumn) super.clone();
+            nu.name = new StringBuffer(name);
+            nu.schema = null;
             return nu;
-        } catch (Exception ex) {
-            return null;
+        } catch (CloneNotSupportedException ex) {
+            throw new AssertionError(ex);
         }
     }
 }
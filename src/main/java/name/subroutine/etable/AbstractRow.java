@@ -22,6 +22,12 @@ public abstract class AbstractRow implements Row {
      */
     public Vector<StringBuffer> valueList;
 
+    /**
+     * The shared schema of the columns, if they came from one. It is only used
+     * while the column list still matches it.
+     */
+    Schema schema;
+
     public AbstractRow() {
         valueList = new Vector<>();
     }
@@ -129,13 +135,7 @@ public abstract class AbstractRow implements Row {
      * Gets a column index by name or -1 if not found
      */
     public int getColumn(String name) {
-        for (int i = 0; i < columnList.size(); i++) {
-            Column column = getColumn(i);
-            if (name.equalsIgnoreCase(column.getName())) {
-                return i;
-            }
-        }
-        return -1;
+        return Schema.indexOf(schema, columnList, name);
     }
 
     /**
@@ -231,4 +231,20 @@ public abstract class AbstractRow implements Row {
 
         return map;
     }
+
+    /**
+     * Returns a read-only view of the record as a map. Records of a parsed table
+     * share the schema of their header, so this only allocates the view itself;
+     * other records get a schema for their columns first.
+     */
+    public Map<String, String> asMap() {
+        Schema current = schema;
+        if (current == null || !current.matches(columnList)) {
+            current = SchemaRegistry.getDefault().intern(columnList);
+            if (current.matches(columnList)) {
+                schema = current;
+            }
+        }
+        return new RowMap(this, current);
+    }
 }
@@ -24,17 +24,91 @@ public abstract class AbstractTable implements Table {
      */
     public Vector<Column> columnList;
 
+    /**
+     * The shared schema of the columns, if they came from one. It is only used
+     * while the column list still matches it.
+     */
+    Schema schema;
+
     /**
      * A vector to hold all the record objects
      */
     public Vector<Row> rowList;
 
+    /**
+     * Where parse problems go
+     */
+    ParseDiagnostics diagnostics;
+
+    /**
+     * Number of lines pushed so far, and the offset of the last one from the start
+     * of the input, for the diagnostics
+     */
+    long lineNumber;
+    long lineOffset = -1;
+
+    /**
+     * Offset of the start of the input in the file it is part of, added to the
+     * offsets of its lines
+     */
+    long inputOffset;
+
     /**
      * initializes the etable
      */
     public void init() {
         rowList = new Vector<>();
-        columnList = new Vector<>();
+        columnList = new ColumnList();
+        schema = null;
+        diagnostics = new ParseDiagnostics();
+        lineNumber = 0;
+    }
+
+    /**
+     * Starts a whole input, whose lines are numbered from 1 for the diagnostics
+     */
+    void start() {
+        start(0, 0);
+    }
+
+    /**
+     * Starts an input that is part of a file, after the given number of lines and
+     * at the given offset, so that the diagnostics give line numbers and offsets
+     * in the whole file
+     */
+    void start(long linesBefore, long offset) {
+        lineNumber = linesBefore;
+        inputOffset = offset;
+    }
+
+    /**
+     * Counts a line, whose offset from the start of the input is given, or -1 if
+     * it is not known
+     */
+    void nextLine(long offset) {
+        lineNumber++;
+        lineOffset = offset < 0 ? offset : inputOffset + offset;
+    }
+
+    /**
+     * Reports a problem with the current line
+     */
+    void report(String reason) {
+        diagnostics.report(lineNumber, lineOffset, reason);
+    }
+
+    /**
+     * Returns the problems found while parsing
+     */
+    public ParseDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Sets where parse problems go, and whether they stop the parsing
+     */
+    public void setDiagnostics(ParseDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
     }
 
     /**
@@ -291,13 +365,7 @@ public abstract class AbstractTable implements Table {
      * Gets a column index by name or -1 if not found
      */
     public int getColumn(String name) {
-        for (int i = 0; i < columnList.size(); i++) {
-            Column column = getColumn(i);
-            if (name.equalsIgnoreCase(column.getName())) {
-                return i;
-            }
-        }
-        return -1;
+        return Schema.indexOf(schema, columnList, name);
     }
 
     /**
@@ -307,7 +375,7 @@ public abstract class AbstractTable implements Table {
      * @return column list
      */
     public List<Column> setColumnList(String[] list) {
-        columnList = new Vector<>();
+        columnList = new ColumnList();
 
         int i;
         for (i = 0; i < list.length; i++) {
@@ -426,8 +494,11 @@ public abstract class AbstractTable implements Table {
     public Table delete(int idx) {
         columnList.remove(idx);
 
-        for (first(); !eof(); next()) {
-            get().getValueList().remove(idx);
+        /*
+         * go by record number so that the cursor is left where it was
+         */
+        for (int i = 0; i < getRowCount(); i++) {
+            get(i).getValueList().remove(idx);
         }
 
         return this;
@@ -457,6 +528,27 @@ public abstract class AbstractTable implements Table {
         return retval;
     }
 
+    /**
+     * Returns the value of a record at a column index as a CharSequence, or an
+     * empty string if the record has no such value. This does not copy the value.
+     */
+    public static CharSequence cell(Row rec, int idx) {
+        if (idx < 0 || idx >= rec.getSize()) {
+            return "";
+        }
+        if (rec instanceof ArenaRow) {
+            return ((ArenaRow) rec).cell(idx);
+        }
+        Object value = rec.get(idx);
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof CharSequence) {
+            return (CharSequence) value;
+        }
+        return value.toString();
+    }
+
     public int current() {
         return current;
     }
@@ -0,0 +1,110 @@
+package name.subroutine.etable;
+
+/**
+ * An aggregate function over a column, for use with GroupBy.
+ *
+ * Cells are parsed as numbers. Cells that are not numbers, such as "4/5 upg",
+ * are left out of SUM, MIN, MAX and AVERAGE, the same way SQL leaves out nulls.
+ */
+public class Aggregate {
+    /**
+     * Number of records in the group. The column is not used.
+     */
+    public static final int COUNT = 200;
+
+    /**
+     * Sum of the numeric values
+     */
+    public static final int SUM = 201;
+
+    /**
+     * Smallest numeric value
+     */
+    public static final int MIN = 202;
+
+    /**
+     * Largest numeric value
+     */
+    public static final int MAX = 203;
+
+    /**
+     * Mean of the numeric values
+     */
+    public static final int AVERAGE = 204;
+
+    int function;
+    String column;
+    String name;
+
+    /**
+     * Creates an aggregate named after the function and column, e.g. "sum(Food)"
+     */
+    public Aggregate(int function, String column) {
+        this(function, column, defaultName(function, column));
+    }
+
+    /**
+     * Creates an aggregate whose result column has the given name
+     */
+    public Aggregate(int function, String column, String name) {
+        if (function < COUNT || function > AVERAGE) {
+            throw new IllegalArgumentException("unknown aggregate function " + function);
+        }
+        if (function != COUNT && column == null) {
+            throw new IllegalArgumentException("aggregate needs a column");
+        }
+        this.function = function;
+        this.column = column;
+        this.name = name;
+    }
+
+    public static Aggregate count() {
+        return new Aggregate(COUNT, null, "count");
+    }
+
+    public static Aggregate sum(String column) {
+        return new Aggregate(SUM, column);
+    }
+
+    public static Aggregate min(String column) {
+        return new Aggregate(MIN, column);
+    }
+
+    public static Aggregate max(String column) {
+        return new Aggregate(MAX, column);
+    }
+
+    public static Aggregate average(String column) {
+        return new Aggregate(AVERAGE, column);
+    }
+
+    static String defaultName(int function, String column) {
+        switch (function) {
+            case COUNT:
+                return "count";
+            case SUM:
+                return "sum(" + column + ")";
+            case MIN:
+                return "min(" + column + ")";
+            case MAX:
+                return "max(" + column + ")";
+            default:
+                return "avg(" + column + ")";
+        }
+    }
+
+    public int getFunction() {
+        return function;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns the name of the result column
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,261 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * A record of an ArenaTable.
+ *
+ * The values are kept in the arena of the table; the record only keeps an int
+ * array with the address and length of each of them. get() returns a new String
+ * each time, and AbstractTable.cell() a view of the chars in the arena.
+ */
+public final class ArenaRow implements Row {
+    /**
+     * The arena the values are in. Compaction moves the values of the records of
+     * a table into a new arena.
+     */
+    CharArena arena;
+
+    /**
+     * The table the record was made for, told when values become garbage
+     */
+    final ArenaTable table;
+
+    /**
+     * Shared with the table, as for any other record
+     */
+    List<Column> columnList;
+
+    /**
+     * The shared schema of the columns, if they came from one
+     */
+    Schema schema;
+
+    /**
+     * Address of value i at span[2 * i], length at span[2 * i + 1]
+     */
+    int[] span;
+    int size;
+
+    ArenaRow(ArenaTable table, List<Column> columnList, int capacity) {
+        this.table = table;
+        this.arena = table.arena;
+        this.columnList = columnList;
+        this.span = new int[capacity * 2];
+    }
+
+    void check(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new ArrayIndexOutOfBoundsException(idx);
+        }
+    }
+
+    /**
+     * Returns a copy of the value in the column specified by columnIndex
+     */
+    public Object get(int columnIndex) {
+        check(columnIndex);
+        return arena.toString(span[columnIndex * 2], span[columnIndex * 2 + 1]);
+    }
+
+    /**
+     * Returns a copy of the value in the named column, or an empty string if there
+     * is no such column
+     */
+    public Object get(String name) {
+        int idx = getColumn(name);
+        if (idx < 0 || idx >= size) {
+            return "";
+        }
+        return get(idx);
+    }
+
+    /**
+     * Returns the value in a column without copying it
+     */
+    CharSequence cell(int idx) {
+        check(idx);
+        return arena.view(span[idx * 2], span[idx * 2 + 1]);
+    }
+
+    /**
+     * The record keeps no StringBuffers to hand out, and changes made to copies
+     * would be lost, so this is not supported. Use get(), set() or toArray().
+     */
+    public List<StringBuffer> getValueList() {
+        throw new UnsupportedOperationException("record keeps its values in an arena");
+    }
+
+    /**
+     * Sets a value by appending it to the arena; the old value becomes garbage
+     */
+    public Row set(int idx, String value) {
+        check(idx);
+        arena.release(span[idx * 2 + 1]);
+        span[idx * 2] = arena.append(value);
+        span[idx * 2 + 1] = value.length();
+        table.released(arena);
+        return this;
+    }
+
+    public Row set(String column, String value) {
+        return set(getColumn(column), value);
+    }
+
+    /**
+     * Deletes a column and its value
+     */
+    public Row delete(int idx) {
+        deleteValue(idx);
+        columnList.remove(idx);
+        return this;
+    }
+
+    public Row delete(String column) {
+        return delete(getColumn(column));
+    }
+
+    /**
+     * Deletes a value, leaving the columns alone
+     */
+    void deleteValue(int idx) {
+        check(idx);
+        arena.release(span[idx * 2 + 1]);
+        System.arraycopy(span, idx * 2 + 2, span, idx * 2, (size - idx - 1) * 2);
+        size--;
+    }
+
+    public Row clearValueList() {
+        for (int i = 0; i < size; i++) {
+            arena.release(span[i * 2 + 1]);
+        }
+        size = 0;
+        return this;
+    }
+
+    public int getColumnCount() {
+        return columnList.size();
+    }
+
+    public int getValueCount() {
+        return getSize();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Column getColumn(int idx) {
+        return columnList.get(idx);
+    }
+
+    /**
+     * Gets a column index by name or -1 if not found
+     */
+    public int getColumn(String name) {
+        return Schema.indexOf(schema, columnList, name);
+    }
+
+    /**
+     * Adds the chars of buf[off, off + len) as the next value
+     */
+    void push(char[] buf, int off, int len) {
+        grow();
+        span[size * 2] = arena.append(buf, off, len);
+        span[size * 2 + 1] = len;
+        size++;
+    }
+
+    /**
+     * Adds the next value
+     */
+    void push(CharSequence value) {
+        grow();
+        span[size * 2] = arena.append(value);
+        span[size * 2 + 1] = value.length();
+        size++;
+    }
+
+    void grow() {
+        if (size * 2 == span.length) {
+            span = Arrays.copyOf(span, Math.max(8, span.length * 2));
+        }
+    }
+
+    public Row push(String val) {
+        push((CharSequence) val);
+        return this;
+    }
+
+    /**
+     * Adds the values of another record
+     */
+    public Row push(Row value) {
+        for (int i = 0; i < value.getSize(); i++) {
+            push(AbstractTable.cell(value, i));
+        }
+        return this;
+    }
+
+    public Row pushAll(String[] val) {
+        for (int i = 0; i < val.length; i++) {
+            push((CharSequence) val[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Moves the values into another arena, in order
+     */
+    void moveTo(CharArena target) {
+        for (int i = 0; i < size; i++) {
+            span[i * 2] = target.copy(arena, span[i * 2], span[i * 2 + 1]);
+        }
+        arena = target;
+    }
+
+    /**
+     * Returns the values as a array of strings, one for each column
+     */
+    public String[] toArray() {
+        String[] array = new String[getColumnCount()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i < size ? (String) get(i) : "";
+        }
+        return array;
+    }
+
+    /**
+     * Returns the record as a string, comma delimited
+     */
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(',');
+            }
+            arena.appendTo(buf, span[i * 2], span[i * 2 + 1]);
+        }
+        return buf.toString();
+    }
+
+    public Map<String, String> toMap() {
+        Map<String, String> map = new HashMap<>();
+        int count = Math.min(getColumnCount(), size);
+        for (int i = 0; i < count; i++) {
+            map.put(getColumn(i).getName(), (String) get(i));
+        }
+        return map;
+    }
+
+    public Map<String, String> asMap() {
+        Schema current = schema;
+        if (current == null || !current.matches(columnList)) {
+            current = SchemaRegistry.getDefault().intern(columnList);
+            if (current.matches(columnList)) {
+                schema = current;
+            }
+        }
+        return new RowMap(this, current);
+    }
+}
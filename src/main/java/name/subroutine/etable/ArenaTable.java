@@ -0,0 +1,367 @@
+package name.subroutine.etable;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * A table that keeps the text of all its cells in one arena of large char
+ * chunks.
+ *
+ * An Etable keeps a Vector and a StringBuffer for each cell, each with its own
+ * object header and spare capacity. Here a record only has an int array with
+ * the address and length of each value in the arena, and the values of one
+ * record are next to each other, in the order they were read, so reading the
+ * records in order walks through memory in order as well.
+ *
+ * Values in the arena never change. Setting a value appends the new one at the
+ * end and leaves the old one as garbage. Once the garbage is more than the live
+ * values, and at least a chunk, the live values are copied into a new arena in
+ * the order of the records; compact() does the same on demand. Strings and views
+ * handed out before stay valid, since they point into the old chunks.
+ *
+ * While a file or text is pushed, each record is first sliced into a set of
+ * buffers that are reused, and only copied into the arena once the line after it
+ * shows that it is complete. A record pushed one line at a time with pushLine()
+ * is copied in right away, and again for each continuation line. Malformed
+ * lines are reported to the ParseDiagnostics of the table, as by Etable.
+ *
+ * Like the collections of java.util, the table is not synchronized.
+ */
+public class ArenaTable extends AbstractTable {
+    CharArena arena;
+
+    /**
+     * The record being sliced, and the one made of it if it is already in the
+     * table
+     */
+    final RowScanner.ScanRow staging = new RowScanner.ScanRow();
+    boolean staged;
+    ArenaRow stagedRow;
+
+    /**
+     * Type of the last line that was not a continuation or a comment
+     */
+    int status;
+
+    /**
+     * A header line has been read and may still be continued
+     */
+    boolean headerOpen;
+
+    public ArenaTable() {
+        init();
+    }
+
+    /**
+     * Makes a copy of a table
+     */
+    public ArenaTable(Table source) {
+        init();
+        for (int i = 0; i < source.getColumnCount(); i++) {
+            pushColumn(source.getColumn(i).getName());
+        }
+        int count = source.getRowCount();
+        for (int i = 0; i < count; i++) {
+            Row row = source.get(i);
+            ArenaRow copy = new ArenaRow(this, columnList, row.getSize());
+            copy.push(row);
+            rowList.add(copy);
+        }
+    }
+
+    public void init() {
+        super.init();
+        arena = new CharArena();
+        staging.setColumnList(columnList);
+        staged = false;
+        stagedRow = null;
+        status = 0;
+        headerOpen = false;
+    }
+
+    /**
+     * Clears all contents, and lets go of the arena
+     */
+    public void clear() {
+        super.clear();
+        arena = new CharArena();
+        staged = false;
+        stagedRow = null;
+    }
+
+    /**
+     * Clears only the records, and lets go of the arena
+     */
+    public void clearRowList() {
+        super.clearRowList();
+        arena = new CharArena();
+        staged = false;
+        stagedRow = null;
+    }
+
+    /**
+     * Appends a record at the end of the record set. A record of this table is
+     * added as it is; any other record is copied.
+     */
+    public Table push(Row rec) {
+        if (rec instanceof ArenaRow && ((ArenaRow) rec).table == this) {
+            ArenaRow row = (ArenaRow) rec;
+            if (row.arena != arena) {
+                row.moveTo(arena);
+            }
+            rowList.add(row);
+            return this;
+        }
+        ArenaRow row = new ArenaRow(this, columnList, rec.getSize());
+        row.push(rec);
+        rowList.add(row);
+        return this;
+    }
+
+    public Table push(String[] value) {
+        return push(createRow(value));
+    }
+
+    public Row createRow() {
+        return new ArenaRow(this, columnList, columnList.size());
+    }
+
+    public Column createColumn(String name) {
+        return new EtableColumn(name);
+    }
+
+    /**
+     * Adds a column to the column list by name
+     */
+    public int pushColumn(String name) {
+        columnList.add(createColumn(name));
+        return 1;
+    }
+
+    /**
+     * Deletes a column
+     */
+    public Table delete(int idx) {
+        columnList.remove(idx);
+        for (int i = 0; i < getRowCount(); i++) {
+            ArenaRow row = (ArenaRow) get(i);
+            if (idx < row.size) {
+                row.deleteValue(idx);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Called by a record whose value has been replaced
+     */
+    void released(CharArena from) {
+        if (from == arena && arena.getReleased() >= CharArena.CHUNK && arena.getReleased() > arena.getLive()) {
+            compact();
+        }
+    }
+
+    /**
+     * Copies the values of all records into a new arena, in the order of the
+     * records, leaving the garbage behind
+     */
+    public void compact() {
+        CharArena old = arena;
+        arena = new CharArena();
+        for (Row row : rowList) {
+            if (row instanceof ArenaRow && ((ArenaRow) row).arena == old) {
+                ((ArenaRow) row).moveTo(arena);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of chars allocated for the arena
+     */
+    public long getArenaCapacity() {
+        return arena.getCapacity();
+    }
+
+    /**
+     * Returns the number of chars in the arena that belong to values that have
+     * been replaced or deleted
+     */
+    public long getArenaGarbage() {
+        return arena.getReleased();
+    }
+
+    /**
+     * Adds a line to the table, the same as Etable.pushLine
+     */
+    public int pushLine(String buf) {
+        char[] chars = buf.toCharArray();
+        int result = pushLine(chars, 0, chars.length, -1);
+        commit();
+        return result;
+    }
+
+    /**
+     * Handles a line, whose offset from the start of the input is known for the
+     * diagnostics, without copying a record that may still be continued into the
+     * arena. Problems are reported the same way as by Etable.
+     */
+    int pushLine(char[] buf, int off, int len, long offset) {
+        int end = off + len;
+        nextLine(offset);
+        int type = LineScanner.classify(buf, off, end);
+        switch (type) {
+            case Etable.HEADER:
+            case Etable.RECORD:
+            case Etable.DELETED_RECORD:
+                commit();
+                staged = false;
+                stagedRow = null;
+                status = type;
+                if (headerOpen) {
+                    internColumns();
+                }
+                if (type == Etable.HEADER) {
+                    columnList = Etable.createColumnLst(buf, off, end);
+                    staging.setColumnList(columnList);
+                    headerOpen = true;
+                } else if (type == Etable.RECORD) {
+                    if (columnList.isEmpty()) {
+                        /*
+                         * kept as a record without values, as by Etable
+                         */
+                        report("record before any header");
+                    }
+                    staging.reset();
+                    Etable.sliceInto(buf, off, end, columnList, staging.valueList, true);
+                    staged = true;
+                }
+                return 1;
+            case Etable.CONTINUATION:
+                if (status == Etable.HEADER) {
+                    List<StringBuffer> nameList = Etable.nameList(columnList);
+                    if (nameList == null) {
+                        report("column names cannot be continued");
+                        return 0;
+                    }
+                    Etable.sliceInto(buf, off, end, columnList, nameList, false);
+                    return 1;
+                }
+                if (status == Etable.RECORD) {
+                    if (!staged) {
+                        report("continuation without a record");
+                        return 0;
+                    }
+                    Etable.sliceInto(buf, off, end, columnList, staging.valueList, false);
+                    return 1;
+                }
+                if (status == Etable.DELETED_RECORD) {
+                    /*
+                     * skip the continuation of a deleted record
+                     */
+                    return 1;
+                }
+                report("continuation without a header or record");
+                return 0;
+            case Etable.RULE:
+            case Etable.COMMENT:
+                return 1;
+            case LineScanner.UNKNOWN:
+                report("unknown line identifier");
+                return 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Copies the record being sliced into the arena, or updates the values that
+     * were continued if it is there already
+     */
+    void commit() {
+        if (!staged) {
+            return;
+        }
+        List<StringBuffer> valueList = staging.valueList;
+        int size = valueList.size();
+        if (stagedRow == null) {
+            stagedRow = new ArenaRow(this, columnList, size);
+            stagedRow.schema = schema;
+            for (int i = 0; i < size; i++) {
+                stagedRow.push(valueList.get(i));
+            }
+            rowList.add(stagedRow);
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            StringBuffer value = valueList.get(i);
+            if (stagedRow.span[i * 2 + 1] != value.length()) {
+                stagedRow.set(i, value.toString());
+            }
+        }
+    }
+
+    /**
+     * Looks up the shared schema of the header just read, now that it is
+     * complete; the table keeps its own columns
+     */
+    void internColumns() {
+        headerOpen = false;
+        schema = SchemaRegistry.getDefault().intern(columnList);
+        schema.bind(columnList);
+    }
+
+    /**
+     * Ends the input: the last record is complete
+     */
+    void finish() {
+        commit();
+        staged = false;
+        stagedRow = null;
+        if (headerOpen) {
+            internColumns();
+        }
+    }
+
+    public int pushFile(String fname) throws IOException {
+        return pushFile(new File(fname), Charset.defaultCharset());
+    }
+
+    /**
+     * Adds an entire file, read in the given character set unless it starts with a
+     * byte order mark. A file compressed with gzip or zlib is inflated on the fly.
+     */
+    public int pushFile(File file, Charset charset) throws IOException {
+        try (InputStream in = CompressedInput.open(file)) {
+            return pushStream(in, charset);
+        }
+    }
+
+    /**
+     * Adds every line of a stream, which is not closed
+     */
+    public int pushStream(InputStream in, Charset charset) throws IOException {
+        LineReader reader = new LineReader(in, charset);
+        start();
+        try {
+            while (reader.next()) {
+                pushLine(reader.getBuffer(), 0, reader.getLength(), reader.getOffset());
+            }
+        } finally {
+            finish();
+        }
+        return 1;
+    }
+
+    /**
+     * Adds every line of a whole document. Lines end at "\n", "\r" or "\r\n".
+     */
+    public int pushText(CharSequence text) {
+        start();
+        try {
+            LineScanner.splitLines(text, this::pushLine);
+        } finally {
+            finish();
+        }
+        return 1;
+    }
+}
@@ -12,6 +12,7 @@ public class ByteColumn extends AbstractColumn {
     }
 
     public void setSize(int s) {
+        unbind();
         _size = s;
     }
 
@@ -20,6 +21,7 @@ public class ByteColumn extends AbstractColumn {
     }
 
     public void setOffset(int o) {
+        unbind();
         _offset = o;
     }
 
@@ -34,9 +36,4 @@ public class ByteColumn extends AbstractColumn {
     public ByteColumn(String name, int type) {
         super(name, type);
     }
-
-    public Object clone() {
-        ByteColumn nu = new ByteColumn(name.toString());
-        return nu;
-    }
 }
@@ -0,0 +1,56 @@
+package name.subroutine.etable;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * Reads the bytes of a file from start up to end through positional reads of a
+ * FileChannel.
+ *
+ * Positional reads do not move the position of the channel, so any number of
+ * these streams can read different parts of the same channel at the same time.
+ * Closing the stream does not close the channel.
+ */
+class ChannelRangeInputStream extends InputStream {
+    final FileChannel channel;
+    long position;
+    final long end;
+
+    ChannelRangeInputStream(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+    }
+
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+    }
+
+    public int read(byte[] buf, int off, int len) throws IOException {
+        if (position >= end) {
+            return -1;
+        }
+        int count = (int) Math.min(len, end - position);
+        if (count == 0) {
+            return 0;
+        }
+        count = channel.read(ByteBuffer.wrap(buf, off, count), position);
+        if (count < 0) {
+            return -1;
+        }
+        position += count;
+        return count;
+    }
+
+    public long skip(long n) {
+        long count = Math.max(0, Math.min(n, end - position));
+        position += count;
+        return count;
+    }
+
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, end - position));
+    }
+}
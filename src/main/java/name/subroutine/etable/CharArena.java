@@ -0,0 +1,166 @@
+package name.subroutine.etable;
+
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Chars of many values, appended one after another into large chunks.
+ *
+ * A value is given back as an address, which is the number of its chunk in the
+ * high bits and its position in the chunk in the low bits. Values never span two
+ * chunks: a value that does not fit in what is left of the current chunk starts a
+ * new one, and a value longer than a chunk gets a chunk of its own.
+ *
+ * Chars are never changed once appended, so a value stays valid for as long as
+ * the arena is reachable. Replacing a value means appending the new one and
+ * releasing the old one, which only counts it as garbage; the space comes back
+ * when the live values are copied to a new arena.
+ */
+final class CharArena {
+    static final int CHUNK_BITS = 16;
+
+    /**
+     * Chars in a regular chunk
+     */
+    static final int CHUNK = 1 << CHUNK_BITS;
+
+    static final int POSITION_MASK = CHUNK - 1;
+
+    /**
+     * The most chunks an int address can tell apart
+     */
+    static final int MAX_CHUNKS = 1 << (31 - CHUNK_BITS);
+
+    char[][] chunks = new char[4][];
+    int chunkCount;
+
+    /**
+     * Next free position in the last chunk
+     */
+    int position = CHUNK;
+
+    /**
+     * Chars appended, and chars released since
+     */
+    long used;
+    long released;
+
+    /**
+     * Appends buf[off, off + len) and returns its address
+     */
+    int append(char[] buf, int off, int len) {
+        int address = reserve(len);
+        System.arraycopy(buf, off, chunks[address >>> CHUNK_BITS], address & POSITION_MASK, len);
+        return address;
+    }
+
+    /**
+     * Appends a value and returns its address
+     */
+    int append(CharSequence value) {
+        int len = value.length();
+        int address = reserve(len);
+        char[] chunk = chunks[address >>> CHUNK_BITS];
+        int pos = address & POSITION_MASK;
+        if (value instanceof String) {
+            ((String) value).getChars(0, len, chunk, pos);
+        } else if (value instanceof StringBuffer) {
+            /*
+             * one lock for the whole copy
+             */
+            ((StringBuffer) value).getChars(0, len, chunk, pos);
+        } else {
+            for (int i = 0; i < len; i++) {
+                chunk[pos + i] = value.charAt(i);
+            }
+        }
+        return address;
+    }
+
+    /**
+     * Makes room for len chars and returns where they go
+     */
+    int reserve(int len) {
+        used += len;
+        if (len > CHUNK) {
+            addChunk(new char[len]);
+            position = CHUNK;
+            return (chunkCount - 1) << CHUNK_BITS;
+        }
+        if (position + len > CHUNK) {
+            addChunk(new char[CHUNK]);
+            position = 0;
+        }
+        int address = (chunkCount - 1) << CHUNK_BITS | position;
+        position += len;
+        return address;
+    }
+
+    void addChunk(char[] chunk) {
+        if (chunkCount == MAX_CHUNKS) {
+            throw new IllegalStateException("arena is full");
+        }
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        chunks[chunkCount++] = chunk;
+    }
+
+    /**
+     * Counts a value that is no longer used as garbage
+     */
+    void release(int len) {
+        released += len;
+    }
+
+    /**
+     * Returns a copy of the value at an address
+     */
+    String toString(int address, int len) {
+        return new String(chunks[address >>> CHUNK_BITS], address & POSITION_MASK, len);
+    }
+
+    /**
+     * Returns the value at an address, without copying it
+     */
+    CharSequence view(int address, int len) {
+        return CharBuffer.wrap(chunks[address >>> CHUNK_BITS], address & POSITION_MASK, len);
+    }
+
+    /**
+     * Appends the value at an address to buf
+     */
+    void appendTo(StringBuilder buf, int address, int len) {
+        buf.append(chunks[address >>> CHUNK_BITS], address & POSITION_MASK, len);
+    }
+
+    /**
+     * Copies the value at an address from another arena, and returns its address
+     * in this one
+     */
+    int copy(CharArena from, int address, int len) {
+        return append(from.chunks[address >>> CHUNK_BITS], address & POSITION_MASK, len);
+    }
+
+    /**
+     * Returns the chars allocated for the chunks
+     */
+    long getCapacity() {
+        long capacity = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            capacity += chunks[i].length;
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the chars of values that are still in use
+     */
+    long getLive() {
+        return used - released;
+    }
+
+    long getReleased() {
+        return released;
+    }
+}
@@ -0,0 +1,74 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * The column list of a table, shared with its records, which remembers the
+ * schema it was last found to match.
+ *
+ * Checking that a list still matches a schema means looking at every column.
+ * Here the check is done once and kept until the list changes, or any column is
+ * changed through a setter, so asking again, as every Row.asMap() does, costs
+ * no more than comparing two counts.
+ */
+final class ColumnList extends Vector<Column> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of elements replaced, which modCount does not count
+     */
+    int replaced;
+
+    /**
+     * The schema last found to match, and the changes to the list and to the
+     * columns at the time
+     */
+    transient Schema checked;
+    transient int checkedStamp;
+    transient long checkedColumns;
+
+    ColumnList() {
+    }
+
+    ColumnList(Collection<? extends Column> source) {
+        super(source);
+    }
+
+    public synchronized Column set(int index, Column element) {
+        replaced++;
+        return super.set(index, element);
+    }
+
+    public synchronized void setElementAt(Column obj, int index) {
+        replaced++;
+        super.setElementAt(obj, index);
+    }
+
+    /**
+     * A copy starts over with a count of its own, so it forgets the check
+     */
+    public synchronized Object clone() {
+        ColumnList copy = (ColumnList) super.clone();
+        copy.checked = null;
+        return copy;
+    }
+
+    /**
+     * Returns true if the columns are those of the schema, as by
+     * Schema.matches(List)
+     */
+    synchronized boolean matches(Schema schema) {
+        int stamp = modCount + replaced;
+        long columns = AbstractColumn.changes.get();
+        if (schema == checked && stamp == checkedStamp && columns == checkedColumns) {
+            return true;
+        }
+        if (!schema.sameColumns(this)) {
+            return false;
+        }
+        checked = schema;
+        checkedStamp = stamp;
+        checkedColumns = columns;
+        return true;
+    }
+}
@@ -0,0 +1,259 @@
+package name.subroutine.etable;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+/**
+ * Opens streams that may be compressed with gzip or zlib (deflate).
+ *
+ * The compression is recognized by the first bytes of the stream, so callers do
+ * not need to know whether a file is compressed. A compressed stream is inflated
+ * on a thread of its own, which hands blocks of plain bytes to the reader through
+ * a bounded queue. Inflating the next blocks and parsing the current one happen
+ * at the same time, so reading takes about as long as the slower of the two
+ * rather than both added together.
+ */
+public final class CompressedInput {
+    /**
+     * The stream is not compressed
+     */
+    public static final int NONE = 500;
+
+    /**
+     * The stream is compressed with gzip
+     */
+    public static final int GZIP = 501;
+
+    /**
+     * The stream is compressed with zlib
+     */
+    public static final int ZLIB = 502;
+
+    /**
+     * Size of the blocks handed from the inflating thread to the reader
+     */
+    static final int BLOCK_SIZE = 65536;
+
+    /**
+     * Number of blocks that may be waiting for the reader
+     */
+    static final int QUEUE_SIZE = 4;
+
+    private CompressedInput() {
+    }
+
+    /**
+     * Tells how a stream is compressed, by its first two bytes
+     */
+    public static int detect(int b0, int b1) {
+        if (b0 == 0x1F && b1 == 0x8B) {
+            return GZIP;
+        }
+        /*
+         * a zlib header is a deflate method byte and a flag byte that together are
+         * a multiple of 31
+         */
+        if ((b0 & 0x0F) == 8 && (b0 >> 4) <= 7 && b1 >= 0 && (b0 * 256 + b1) % 31 == 0) {
+            return ZLIB;
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns a stream of the plain bytes of a file that may be compressed. The
+     * file is closed again if its first bytes cannot be read.
+     */
+    public static InputStream open(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            return open(in);
+        } catch (IOException | RuntimeException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns a stream of the plain bytes of a stream that may be compressed
+     *
+     * Closing the returned stream closes the given one.
+     */
+    public static InputStream open(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BLOCK_SIZE);
+        buffered.mark(2);
+        int b0 = buffered.read();
+        int b1 = buffered.read();
+        buffered.reset();
+
+        switch (detect(b0, b1)) {
+            case GZIP:
+                return new PipedInflater(new GZIPInputStream(buffered, BLOCK_SIZE));
+            case ZLIB:
+                return new PipedInflater(new InflaterInputStream(buffered, new Inflater(), BLOCK_SIZE));
+        }
+        return buffered;
+    }
+
+    /**
+     * Reads an inflating stream on another thread, a block at a time
+     */
+    static class PipedInflater extends InputStream {
+        /**
+         * Marks the end of the stream in the queue
+         */
+        static final Block END = new Block(0);
+
+        final InputStream source;
+        final BlockingQueue<Block> full = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+        /**
+         * Blocks the reader is done with, for the inflating thread to fill again
+         */
+        final BlockingQueue<Block> empty = new ArrayBlockingQueue<>(QUEUE_SIZE + 2);
+
+        final Thread thread;
+        volatile Exception error;
+        volatile boolean closed;
+
+        Block current;
+        int pos;
+
+        PipedInflater(InputStream source) {
+            this.source = source;
+            for (int i = 0; i < QUEUE_SIZE + 2; i++) {
+                empty.add(new Block(BLOCK_SIZE));
+            }
+            thread = new Thread(this::inflate, "etable-inflater");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Runs on the inflating thread
+         */
+        void inflate() {
+            try {
+                while (!closed) {
+                    Block block = empty.take();
+                    block.length = 0;
+                    while (block.length < block.buf.length) {
+                        int count = source.read(block.buf, block.length, block.buf.length - block.length);
+                        if (count < 0) {
+                            break;
+                        }
+                        block.length += count;
+                    }
+                    if (block.length > 0) {
+                        full.put(block);
+                    }
+                    if (block.length < block.buf.length) {
+                        break;
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                /*
+                 * the reader gets the error after END, so it never waits for
+                 * blocks that will not come
+                 */
+                error = ex;
+            } catch (InterruptedException ex) {
+                return;
+            }
+            try {
+                full.put(END);
+            } catch (InterruptedException ex) {
+                /*
+                 * the reader is gone
+                 */
+            }
+        }
+
+        /**
+         * Makes current a block with bytes left in it
+         *
+         * @return false at the end of the stream
+         */
+        boolean nextBlock() throws IOException {
+            if (closed) {
+                throw new IOException("stream is closed");
+            }
+            if (current == END) {
+                return false;
+            }
+            if (current != null && pos < current.length) {
+                return true;
+            }
+            if (current != null) {
+                empty.offer(current);
+            }
+            try {
+                current = full.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for inflated bytes");
+            }
+            pos = 0;
+            if (current == END) {
+                if (error instanceof IOException) {
+                    throw (IOException) error;
+                }
+                if (error instanceof RuntimeException) {
+                    throw (RuntimeException) error;
+                }
+                return false;
+            }
+            return true;
+        }
+
+        public int read() throws IOException {
+            if (!nextBlock()) {
+                return -1;
+            }
+            return current.buf[pos++] & 0xff;
+        }
+
+        public int read(byte[] buf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextBlock()) {
+                return -1;
+            }
+            int count = Math.min(len, current.length - pos);
+            System.arraycopy(current.buf, pos, buf, off, count);
+            pos += count;
+            return count;
+        }
+
+        public int available() {
+            return current == null || current == END ? 0 : current.length - pos;
+        }
+
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            source.close();
+        }
+    }
+
+    /**
+     * A buffer and the number of bytes in it
+     */
+    static class Block {
+        final byte[] buf;
+        int length;
+
+        Block(int size) {
+            buf = new byte[size];
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * Collects the continuation lines of a record and adds them to its values in one
+ * go once the record is complete.
+ *
+ * Appending each slice straight to a value costs a lock on the Vector and one on
+ * the StringBuffer, and the buffer grows by doubling, so a value made of a few
+ * thousand lines is copied several times and ends up with up to twice the
+ * capacity it needs. Here the slices of each column go to an unsynchronized
+ * builder, which is kept for the next record, and each value grows once, to its
+ * final length.
+ */
+final class ContinuationBuffer {
+    /**
+     * Builders bigger than this are not kept for the next record
+     */
+    static final int KEEP_CAPACITY = 1 << 20;
+
+    StringBuilder[] pieces = new StringBuilder[0];
+
+    /**
+     * The record being continued, or null
+     */
+    Row row;
+
+    int columnCount;
+
+    /**
+     * Starts collecting for a record, after adding what was collected to the
+     * previous one
+     */
+    void open(Row row, int columnCount) {
+        flush();
+        if (pieces.length < columnCount) {
+            StringBuilder[] bigger = Arrays.copyOf(pieces, columnCount);
+            for (int i = pieces.length; i < columnCount; i++) {
+                bigger[i] = new StringBuilder();
+            }
+            pieces = bigger;
+        }
+        this.row = row;
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * Slices a continuation line in buf[off, end) the way Etable.sliceInto does,
+     * removing trailing whitespace
+     */
+    void add(char[] buf, int off, int end, List<Column> columnList) {
+        for (int i = 0; i < columnCount; i++) {
+            long bounds = Etable.sliceBounds(buf, off, end, columnList, i, false);
+            if (bounds >= 0) {
+                int start = (int) (bounds >>> 32);
+                pieces[i].append(buf, start, (int) bounds - start);
+            }
+        }
+    }
+
+    /**
+     * Adds what was collected to the values of the record
+     */
+    void flush() {
+        if (row == null) {
+            return;
+        }
+        List<StringBuffer> valueList = row.getValueList();
+        for (int i = 0; i < columnCount; i++) {
+            StringBuilder piece = pieces[i];
+            if (piece.length() == 0) {
+                continue;
+            }
+            StringBuffer value = valueList.get(i);
+            synchronized (value) {
+                value.ensureCapacity(value.length() + piece.length());
+                value.append(piece);
+            }
+            if (piece.capacity() > KEEP_CAPACITY) {
+                pieces[i] = new StringBuilder();
+            } else {
+                piece.setLength(0);
+            }
+        }
+        row = null;
+    }
+
+    /**
+     * Drops the record being continued and what was collected for it
+     */
+    void clear() {
+        for (int i = 0; i < columnCount; i++) {
+            pieces[i].setLength(0);
+        }
+        row = null;
+    }
+}
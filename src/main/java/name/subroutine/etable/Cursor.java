@@ -0,0 +1,152 @@
+package name.subroutine.etable;
+
+import java.util.function.*;
+
+/**
+ * A position within the records of a table, separate from the cursor of the
+ * table itself (first, next, get and so on).
+ *
+ * Each cursor keeps its own position, so any number of them can move through the
+ * same table at once, including from different threads, as long as nobody
+ * changes the table in the meantime. A cursor is not meant to be shared between
+ * threads.
+ *
+ * A cursor may have a filter, in which case it only stops at records the filter
+ * accepts. The position is the record number in the table.
+ *
+ * <pre>
+ * Cursor cursor = table.cursor();
+ * for (Row rec = cursor.first(); rec != null; rec = cursor.next()) {
+ *     ...
+ * }
+ * </pre>
+ */
+public class Cursor {
+    final Table table;
+    final Predicate<? super Row> filter;
+
+    /**
+     * Record number of the current record, -1 before the first record and the
+     * number of records after the last one
+     */
+    int position = -1;
+
+    public Cursor(Table table) {
+        this(table, null);
+    }
+
+    /**
+     * Creates a cursor that only stops at records accepted by the filter. A null
+     * filter accepts every record.
+     */
+    public Cursor(Table table, Predicate<? super Row> filter) {
+        this.table = table;
+        this.filter = filter;
+    }
+
+    /**
+     * Moves to the first record and returns it
+     *
+     * @return the first record or null if there are none
+     */
+    public Row first() {
+        return seek(0);
+    }
+
+    /**
+     * Moves to the next record and returns it
+     *
+     * @return the next record or null if there are no more
+     */
+    public Row next() {
+        return seek(position + 1);
+    }
+
+    /**
+     * Moves to the previous record and returns it
+     *
+     * @return the previous record or null if there are none before this one
+     */
+    public Row previous() {
+        int idx = Math.min(position, table.getRowCount()) - 1;
+        for (; idx >= 0; idx--) {
+            Row rec = table.get(idx);
+            if (accept(rec)) {
+                position = idx;
+                return rec;
+            }
+        }
+        position = -1;
+        return null;
+    }
+
+    /**
+     * Moves to the last record and returns it
+     *
+     * @return the last record or null if there are none
+     */
+    public Row last() {
+        position = table.getRowCount();
+        return previous();
+    }
+
+    /**
+     * Moves to the record with the given number, or the first one after it that
+     * the filter accepts, and returns it
+     *
+     * @return the record or null if there are no more
+     */
+    public Row seek(int num) {
+        int count = table.getRowCount();
+        for (int idx = Math.max(num, 0); idx < count; idx++) {
+            Row rec = table.get(idx);
+            if (accept(rec)) {
+                position = idx;
+                return rec;
+            }
+        }
+        position = count;
+        return null;
+    }
+
+    boolean accept(Row rec) {
+        return rec != null && (filter == null || filter.test(rec));
+    }
+
+    /**
+     * Returns the current record
+     *
+     * @return the current record or null if the cursor is not on a record
+     */
+    public Row get() {
+        if (bof() || eof()) {
+            return null;
+        }
+        return table.get(position);
+    }
+
+    /**
+     * Returns the record number of the current record in the table
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns true if the cursor is before the first record
+     */
+    public boolean bof() {
+        return position < 0;
+    }
+
+    /**
+     * Returns true if the cursor is past the last record
+     */
+    public boolean eof() {
+        return position >= table.getRowCount();
+    }
+
+    public Table getTable() {
+        return table;
+    }
+}
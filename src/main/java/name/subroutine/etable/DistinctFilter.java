@@ -0,0 +1,160 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * Lets through only the first record with each combination of values.
+ *
+ * Records are compared on the given columns, or on all their columns when none
+ * are given. Instead of keeping the values, the filter keeps a 128-bit
+ * fingerprint of each combination it has let through, in a set of primitive
+ * arrays, which costs 20 to 40 bytes per distinct record whatever the size of
+ * the values. This makes it suitable for a stream of records that are not kept,
+ * such as those of a RowScanner, e.g.
+ *
+ * <pre>
+ * DistinctFilter filter = new DistinctFilter(new String[] { "Id" });
+ * while (scanner.next()) {
+ *     if (filter.test(scanner.getRow())) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * Since the records are not kept, two different combinations with the same
+ * fingerprint would be taken as the same; at 128 bits that is not expected to
+ * happen in the life of the universe. Table.distinct() keeps the records anyway,
+ * so it also checks every match against the real values.
+ *
+ * A filter is not thread safe.
+ */
+public class DistinctFilter implements Predicate<Row> {
+    /**
+     * Records are fingerprinted in chunks of this many in parallel mode
+     */
+    static final int CHUNK = 4096;
+
+    final String[] columnList;
+    final RowFingerprint.FingerprintSet set = new RowFingerprint.FingerprintSet();
+    final long[] fingerprint = new long[2];
+
+    /**
+     * The columns of the last record, and the indexes of the compared columns in
+     * them
+     */
+    List<Column> lastColumnList;
+    int[] lastIdx;
+
+    /**
+     * Creates a filter that compares records on the given columns, or on all
+     * their columns if the list is empty
+     */
+    public DistinctFilter(String[] columnList) {
+        this.columnList = columnList.clone();
+    }
+
+    /**
+     * Returns true if no record with the same values has been tested before
+     */
+    public boolean test(Row row) {
+        RowFingerprint.of(row, resolve(row), fingerprint);
+        return set.add(fingerprint[0], fingerprint[1], 0, null);
+    }
+
+    /**
+     * Returns the number of distinct records seen so far
+     */
+    public int getCount() {
+        return set.size();
+    }
+
+    /**
+     * Forgets every record seen so far
+     */
+    public void clear() {
+        set.clear();
+    }
+
+    /**
+     * Finds the compared columns in a record, reusing the last answer while the
+     * records share their column list
+     */
+    int[] resolve(Row row) {
+        List<Column> rowColumnList = row instanceof AbstractRow ? ((AbstractRow) row).columnList : null;
+        if (lastIdx != null && rowColumnList != null && rowColumnList == lastColumnList
+                && (columnList.length > 0 || lastIdx.length == rowColumnList.size())) {
+            return lastIdx;
+        }
+        lastColumnList = rowColumnList;
+        lastIdx = resolve(row.getColumnCount(), row::getColumn, columnList);
+        return lastIdx;
+    }
+
+    static int[] resolve(int columnCount, ToIntFunction<String> getColumn, String[] columnList) {
+        if (columnList.length == 0) {
+            return IntStream.range(0, columnCount).toArray();
+        }
+        int[] idx = new int[columnList.length];
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = getColumn.applyAsInt(columnList[i]);
+            if (idx[i] < 0) {
+                throw new IllegalArgumentException("no column " + columnList[i]);
+            }
+        }
+        return idx;
+    }
+
+    /**
+     * Returns a new table with the first record of each combination of values in
+     * the given columns, or in all columns if the list is empty, in their
+     * original order. Matching fingerprints are checked against the records.
+     *
+     * @param parallel true to fingerprint the records on all processors first
+     */
+    public static Table distinct(Table table, String[] columnList, boolean parallel) {
+        int[] idx = resolve(table.getColumnCount(), table::getColumn, columnList);
+        int count = table.getRowCount();
+
+        long[] fingerprint = null;
+        if (parallel) {
+            long[] all = new long[count * 2];
+            IntStream.range(0, (count + CHUNK - 1) / CHUNK).parallel().forEach(chunk -> {
+                long[] out = new long[2];
+                int end = Math.min(count, (chunk + 1) * CHUNK);
+                for (int i = chunk * CHUNK; i < end; i++) {
+                    RowFingerprint.of(table.get(i), idx, out);
+                    all[i * 2] = out[0];
+                    all[i * 2 + 1] = out[1];
+                }
+            });
+            fingerprint = all;
+        }
+
+        Etable result = new Etable();
+        for (int i = 0; i < table.getColumnCount(); i++) {
+            result.pushColumn(table.getColumn(i).getName());
+        }
+
+        RowFingerprint.FingerprintSet set = new RowFingerprint.FingerprintSet();
+        long[] out = new long[2];
+        for (int i = 0; i < count; i++) {
+            Row row = table.get(i);
+            if (fingerprint != null) {
+                out[0] = fingerprint[i * 2];
+                out[1] = fingerprint[i * 2 + 1];
+            } else {
+                RowFingerprint.of(row, idx, out);
+            }
+            if (set.add(out[0], out[1], i, j -> RowFingerprint.same(table.get(j), idx, row, idx))) {
+                String[] valueList = new String[table.getColumnCount()];
+                for (int k = 0; k < valueList.length; k++) {
+                    valueList[k] = AbstractTable.cell(row, k).toString();
+                }
+                result.push(valueList);
+            }
+        }
+        return result;
+    }
+}
@@ -2,6 +2,8 @@ package name.subroutine.etable;
 
 import java.util.*;
 import java.io.*;
+import java.nio.charset.*;
+import java.util.function.*;
 
 /**
  * This is used to generate classes with different trimming properties. By using
@@ -73,7 +75,7 @@ class ColumnRetriever implements Retriever {
     public StringBuffer get(Etable table, int idx) {
         EtableColumn column;
         column = (EtableColumn) table.columnList.elementAt(idx);
-        return column.name;
+        return column.editName();
     }
 
     /**
@@ -240,6 +242,17 @@ public class Etable extends AbstractTable {
      */
     public Vector<Row> _record_lst;
 
+    /**
+     * A header line has been read and may still be continued, so its columns have
+     * not been interned yet
+     */
+    boolean headerOpen;
+
+    /**
+     * Continuation lines of the last record, added to it once it is complete
+     */
+    final ContinuationBuffer continuation = new ContinuationBuffer();
+
     public Etable() {
         init();
     }
@@ -252,6 +265,8 @@ public class Etable extends AbstractTable {
         _record_lst = new Vector<>();
         _prev_status = 0;
         _status = 0;
+        headerOpen = false;
+        continuation.clear();
     }
 
     /**
@@ -503,13 +518,7 @@ public class Etable extends AbstractTable {
      * Gets a column index by name or -1 if not found
      */
     public int getColumn(String name) {
-        for (int i = 0; i < columnList.size(); i++) {
-            Column column = getColumn(i);
-            if (name.equalsIgnoreCase(column.getName())) {
-                return i;
-            }
-        }
-        return -1;
+        return Schema.indexOf(schema, columnList, name);
     }
 
     /**
@@ -519,7 +528,7 @@ public class Etable extends AbstractTable {
      * @return column list
      */
     public List<Column> setColumnList(String[] list) {
-        columnList = new Vector<>();
+        columnList = new ColumnList();
 
         int i;
         for (i = 0; i < list.length; i++) {
@@ -565,74 +574,49 @@ public class Etable extends AbstractTable {
      * @return a vector of Column objects
      */
     public static Vector<Column> createColumnLst(String buf) {
-        /*
-         * we only need to states: space, and non-space
-         *
-         * we mark each time we go from space to non-space
-         */
-        final int space = 100;
-        final int notspace = 101;
-
-        int status;
-
-        Vector<Column> column_lst = new Vector<>();
+        char[] chars = buf.toCharArray();
+        return createColumnLst(chars, 0, chars.length);
+    }
 
-        /*
-         * initialize to space for now, so when we hit the first nonspace we mark it
-         */
-        status = space;
+    /**
+     * Parses the header line in buf[off, end) and determines the offset and size of
+     * each column. Offsets are relative to off.
+     *
+     * A column begins at each transition from whitespace to non-whitespace. There
+     * must not be any gap between two columns, so the size of a column is the
+     * distance to the next one. The last column is left at size zero since it
+     * extends to the end of the line.
+     *
+     * @return a vector of Column objects
+     */
+    public static Vector<Column> createColumnLst(char[] buf, int off, int end) {
+        Vector<Column> column_lst = new ColumnList();
 
         /*
          * idx starts at 1 because the 0 position is the identifier
          */
         EtableColumn column = null;
-        for (int idx = 1; idx <= buf.length(); idx++) {
-            char chr;
+        int idx = off + 1;
+        while (true) {
+            idx = LineScanner.skipWhitespace(buf, idx, end);
+            if (idx >= end) {
+                break;
+            }
+            int wordEnd = LineScanner.skipWord(buf, idx, end);
 
             /*
-             * this is a workaround. we need to make sure the last column * gets registered,
-             * so we are appending a space character to flush out the last column 
+             * Update information for the previous column, if there is one
              */
-            if (idx < buf.length()) {
-                chr = buf.charAt(idx);
-            } else {
-                chr = ' ';
+            if (column != null) {
+                column.setSize(idx - off - column._offset);
             }
 
-            switch (status) {
-                case 100:
-                    if (!Character.isWhitespace(chr)) {
-                        /*
-                         * Update information for the previous column, if there is one
-                         *
-                         * There must not be any gap between two columns. This is done for the
-                         * convenience of the user.
-                         */
-                        if (column != null) {
-                            column.setSize(idx - column._offset);
-                        }
-
-                        /*
-                         * make a new column now
-                         */
-                        column = new EtableColumn();
-                        column._offset = idx;
-
-                        column.name.append(chr);
-
-                        status = notspace;
-                        break;
-                    }
-                    break;
-                case 101:
-                    if (Character.isWhitespace(chr)) {
-                        status = space;
-                        column_lst.add(column);
-                        break;
-                    }
-                    column.name.append(chr);
-                    break;
-            }
+            column = new EtableColumn();
+            column._offset = idx - off;
+            column.name.append(buf, idx, wordEnd - idx);
+            column_lst.add(column);
+
+            idx = wordEnd;
         }
 
         return column_lst;
@@ -644,62 +628,195 @@ public class Etable extends AbstractTable {
      * the appropriate actions.
      */
     public int pushLine(String buf) {
+        char[] chars = buf.toCharArray();
+        return pushLine(chars, 0, chars.length);
+    }
+
+    /**
+     * Adds the line in buf[off, off + len) to the table, the same as
+     * pushLine(String) but without making a string of it. The chars are copied
+     * into the table, so the array may be reused afterwards.
+     */
+    public int pushLine(char[] buf, int off, int len) {
+        int result = pushLine(buf, off, len, -1);
+        continuation.flush();
+        return result;
+    }
+
+    /**
+     * Adds the line in buf[off, off + len), whose offset from the start of the
+     * input is known, for the diagnostics
+     */
+    int pushLine(char[] buf, int off, int len, long offset) {
+        return pushLine(buf, off, len, offset, LineScanner.classify(buf, off, off + len));
+    }
+
+    /**
+     * Adds a line that has already been classified by LineScanner
+     */
+    int pushLine(char[] buf, int off, int len, long offset, int type) {
+        int end = off + len;
+        nextLine(offset);
         _prev_status = _status;
 
-        if (buf.trim().length() <= 0)
-            return 0;
+        if (type == HEADER || type == RECORD || type == DELETED_RECORD) {
+            continuation.flush();
+            if (headerOpen) {
+                internColumns();
+            }
+        }
 
-        switch (buf.charAt(0)) {
-            case '%':
+        switch (type) {
+            case HEADER:
                 _status = HEADER;
-                _createColumnLst(buf);
+                columnList = createColumnLst(buf, off, end);
+                headerOpen = true;
                 return 1;
-            case ' ':
+            case RECORD:
                 _status = RECORD;
+                if (columnList.isEmpty()) {
+                    /*
+                     * reported, but kept as a record without values, since IndexedTable
+                     * and older callers read such records
+                     */
+                    report("record before any header");
+                }
                 /*
-                 * slice the string into the new record, with new stringbuffers, right trimmed
-                 *
-                 * By doing some mix and match, we can create all sorts of effects, such as
-                 * appending a record onto the column names.
+                 * slice the line into a new record, fully trimmed
                  */
-                slice(buf, _newRet, _trimmer);
-                return 1;
-            case '*':
+                EtableRow rec = new EtableRow(columnList);
+                rec.schema = schema;
+                List<StringBuffer> valueList = rec.getValueList();
+                for (int i = 0; i < columnList.size(); i++) {
+                    valueList.add(new StringBuffer());
+                }
+                push(rec);
+                return sliceLine(buf, off, end, valueList, true);
+            case DELETED_RECORD:
                 /**
                  * deleted record
                  */
                 _status = DELETED_RECORD;
                 return 1;
-            case '_':
+            case CONTINUATION:
                 /**
                  * Don't set _status here Since we are just using the previous status
                  *
                  * Thus, we really don't need _prev_status, but it's too late now
                  */
-                return pushCont(buf);
-            case '-':
+                return pushCont(buf, off, end);
+            case RULE:
                 return 1;
-            case '#':
+            case COMMENT:
                 return 1;
+            case LineScanner.UNKNOWN:
+                report("unknown line identifier");
+                return 0;
         }
         return 0;
     }
 
+    /**
+     * Looks up the shared schema of the header just read, now that the header
+     * cannot be continued any more. The table keeps its own columns, bound to the
+     * schema until one of them is changed.
+     */
+    void internColumns() {
+        headerOpen = false;
+        schema = SchemaRegistry.getDefault().intern(columnList);
+        schema.bind(columnList);
+    }
+
+    /**
+     * Ends the input: the last record and the last header are complete
+     */
+    void finish() {
+        continuation.flush();
+        if (headerOpen) {
+            internColumns();
+        }
+    }
+
+    /**
+     * Only used if the line in buf[off, end) is a continuation
+     */
+    int pushCont(char[] buf, int off, int end) {
+        switch (_prev_status) {
+            case HEADER:
+                return sliceLine(buf, off, end, nameList(columnList), false);
+            case RECORD:
+                /*
+                 * collect the slices for the last record processed
+                 */
+                if (_record_lst.isEmpty()) {
+                    report("continuation without a record");
+                    return 0;
+                }
+                Row rec = _record_lst.lastElement();
+                if (rec != continuation.row) {
+                    if (rec.getValueList().size() < columnList.size()) {
+                        report("record has fewer values than columns");
+                        return 0;
+                    }
+                    continuation.open(rec, columnList.size());
+                }
+                continuation.add(buf, off, end, columnList);
+                return 1;
+            case DELETED_RECORD:
+                /*
+                 * skip the continuation of a deleted record
+                 */
+                return 1;
+        }
+        report("continuation without a header or record");
+        return 0;
+    }
+
+    /**
+     * Slices a line into the pieces, after checking that there is a piece for
+     * every column
+     */
+    int sliceLine(char[] buf, int off, int end, List<StringBuffer> pieces, boolean fullTrim) {
+        if (pieces == null) {
+            report("column names cannot be continued");
+            return 0;
+        }
+        if (pieces.size() < columnList.size()) {
+            report("record has fewer values than columns");
+            return 0;
+        }
+        sliceInto(buf, off, end, columnList, pieces, fullTrim);
+        return 1;
+    }
+
+    /**
+     * Returns the name buffers of the columns, for continued header lines, or null
+     * if the names of some columns are not buffers
+     */
+    static List<StringBuffer> nameList(List<Column> columnList) {
+        List<StringBuffer> nameList = new ArrayList<>(columnList.size());
+        for (Column column : columnList) {
+            if (!(column instanceof AbstractColumn)) {
+                return null;
+            }
+            nameList.add(((AbstractColumn) column).editName());
+        }
+        return nameList;
+    }
+
     /**
      * Only used if the line is a continuation
      */
     public int pushCont(String buf) {
         switch (_prev_status) {
             case HEADER:
-                slice(buf, _columnRet, _rtrimmer);
-                return 1;
             case RECORD:
                 /*
                  * slice the string and append the results into the last record processed
-                 *
-                 * We can even append to the first record if we want to.
                  */
-                slice(buf, _recRet, _rtrimmer);
+                char[] chars = buf.toCharArray();
+                pushCont(chars, 0, chars.length);
+                continuation.flush();
                 return 1;
             case DELETED_RECORD:
                 /*
@@ -713,8 +830,8 @@ public class Etable extends AbstractTable {
     public List<StringBuffer> slice(String buf, Retriever retriever, StringTrimmer trimmer) {
         try {
             return _slice(buf, retriever, trimmer);
-        } catch (Exception ex) {
-            System.out.println("Error: " + buf);
+        } catch (RuntimeException ex) {
+            report("cannot slice line: " + ex);
             return null;
         }
     }
@@ -796,6 +913,82 @@ public class Etable extends AbstractTable {
         return pieces;
     }
 
+    /**
+     * Cuts buf[off, end) into slices according to the column definitions and
+     * appends slice i to pieces.get(i). Column offsets are relative to off.
+     *
+     * This gives the same slices as _slice, but copies the chars straight from the
+     * line into the existing buffers, without making any strings.
+     *
+     * @param fullTrim true to trim both ends like String.trim, false to remove only
+     *            the trailing whitespace like RTrim
+     */
+    static void sliceInto(char[] buf, int off, int end, List<Column> columnList,
+            List<StringBuffer> pieces, boolean fullTrim) {
+        for (int i = 0; i < columnList.size(); i++) {
+            long bounds = sliceBounds(buf, off, end, columnList, i, fullTrim);
+            if (bounds >= 0) {
+                int start = (int) (bounds >>> 32);
+                pieces.get(i).append(buf, start, (int) bounds - start);
+            }
+        }
+    }
+
+    /**
+     * Finds slice i of buf[off, end), trimmed as by sliceInto, for callers that
+     * append the slices to something other than StringBuffers
+     *
+     * @return the start of the slice in the high 32 bits and its end in the low
+     *         ones, or -1 if the line stops before the column
+     */
+    static long sliceBounds(char[] buf, int off, int end, List<Column> columnList, int i, boolean fullTrim) {
+        Column column = columnList.get(i);
+        int start = off + column.getOffset();
+        if (start >= end) {
+            return -1;
+        }
+
+        /*
+         * the last column runs to the end of the line, and so does any other
+         * column that is cut short
+         */
+        int stop = i < columnList.size() - 1 ? Math.min(start + column.getSize(), end) : end;
+        if (fullTrim) {
+            start = LineScanner.skipBlank(buf, start, stop);
+            while (stop > start && buf[stop - 1] <= ' ') {
+                stop--;
+            }
+        } else {
+            while (stop > start && Character.isWhitespace(buf[stop - 1])) {
+                stop--;
+            }
+        }
+        return (long) start << 32 | stop;
+    }
+
+    /**
+     * Reads a file one record at a time, in the given character set unless it
+     * starts with a byte order mark, and hands each record to the handler. The
+     * records are not added to any table. A file compressed with gzip or zlib is
+     * inflated on the fly.
+     *
+     * The same row object, and the same buffers within it, are reused for every
+     * record, so the handler must copy whatever it wants to keep.
+     *
+     * @return the number of records handled
+     * @see RowScanner
+     */
+    public static long scan(File file, Charset charset, Consumer<? super Row> handler) throws IOException {
+        try (RowScanner scanner = new RowScanner(CompressedInput.open(file), charset)) {
+            long count = 0;
+            while (scanner.next()) {
+                handler.accept(scanner.getRow());
+                count++;
+            }
+            return count;
+        }
+    }
+
     /**
      * Similar to pushLine, but adds an entire file named [fname]
      *
@@ -810,23 +1003,92 @@ public class Etable extends AbstractTable {
     /**
      * Similar to pushLine, but adds an entire file
      *
+     * The file is read in the default character set of the platform, unless it
+     * starts with a byte order mark.
+     *
      * This is provided to make life easier.
      *
      * Life is hard. Please die.
      */
     public int pushFile(File file) throws FileNotFoundException, IOException {
-        FileReader fr = new FileReader(file);
-        BufferedReader br = new BufferedReader(fr);
+        return pushFile(file, Charset.defaultCharset());
+    }
 
-        while (true) {
-            String buf = br.readLine();
-            if (buf == null)
-                break;
+    /**
+     * Adds an entire file, read in the given character set unless it starts with a
+     * byte order mark. A file compressed with gzip or zlib is inflated on the fly.
+     */
+    public int pushFile(File file, Charset charset) throws FileNotFoundException, IOException {
+        try (InputStream in = CompressedInput.open(file)) {
+            return pushStream(in, charset);
+        }
+    }
 
-            pushLine(buf);
+    /**
+     * Adds an entire file, the same as pushFile, but reads and decodes the file on
+     * two other threads while this one slices the records
+     *
+     * @see EtablePipeline
+     */
+    public int pushFilePipelined(File file, Charset charset) throws FileNotFoundException, IOException {
+        try (InputStream in = CompressedInput.open(file)) {
+            return EtablePipeline.push(this, in, charset);
+        }
+    }
+
+    /**
+     * Adds every line of a stream, read in the given character set unless it
+     * starts with a byte order mark. The stream is not closed.
+     */
+    public int pushStream(InputStream in, Charset charset) throws IOException {
+        return pushStream(in, charset, 0, 0);
+    }
+
+    /**
+     * Adds every line of a stream that is part of a file, after the given number
+     * of lines and at the given offset in it
+     */
+    int pushStream(InputStream in, Charset charset, long linesBefore, long offset) throws IOException {
+        LineReader reader = new LineReader(in, charset);
+        start(linesBefore, offset);
+        try {
+            while (reader.next()) {
+                pushLine(reader.getBuffer(), 0, reader.getLength(), reader.getOffset());
+            }
+        } finally {
+            finish();
+        }
+        return 1;
+    }
+
+    /**
+     * Adds every line of a whole document, such as the contents of a file that is
+     * already in memory. Lines end at "\n", "\r" or "\r\n".
+     *
+     * Each line is copied into one reused char array, so no string is made per
+     * line.
+     */
+    public int pushText(CharSequence text) {
+        start();
+        try {
+            LineScanner.splitLines(text, this::pushLine);
+        } finally {
+            finish();
+        }
+        return 1;
+    }
+
+    /**
+     * Adds every line of the document in buf[off, off + len). Lines end at "\n",
+     * "\r" or "\r\n", and are sliced where they are without being copied first.
+     */
+    public int pushText(char[] buf, int off, int len) {
+        start();
+        try {
+            LineScanner.splitLines(buf, off, len, this::pushLine);
+        } finally {
+            finish();
         }
-        br.close();
-        fr.close();
         return 1;
     }
 
@@ -890,8 +1152,11 @@ public class Etable extends AbstractTable {
     public Table delete(int idx) {
         columnList.remove(idx);
 
-        for (first(); !eof(); next()) {
-            get().getValueList().remove(idx);
+        /*
+         * go by record number so that the cursor is left where it was
+         */
+        for (int i = 0; i < getRowCount(); i++) {
+            get(i).getValueList().remove(idx);
         }
 
         return this;
@@ -0,0 +1,306 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * A file that holds many tables, one after another, each starting with its own
+ * header line.
+ *
+ * Opening the catalog reads the file once, only to note where each section
+ * starts and ends, its columns and how many records it has. A section is parsed
+ * into a table the first time it is asked for, by reading just its part of the
+ * file, and the table is kept for later calls. Memory is only spent on the
+ * sections that are used.
+ *
+ * A section may be named by a comment on the line before its header, e.g.
+ *
+ * <pre>
+ * # fruit
+ * %Name   Color
+ *  apple  red
+ * </pre>
+ *
+ * The name becomes the _name of the table. Sections without such a comment have
+ * no name; a blank line or a rule between the comment and the header ends it as
+ * well.
+ *
+ * Problems found while parsing a section are reported with the line numbers and
+ * byte offsets of the whole file.
+ *
+ * The character set must agree with ASCII on the first 128 bytes, since sections
+ * are found by their byte offsets.
+ */
+public class EtableCatalog implements Closeable {
+    final File file;
+    final Charset charset;
+    final FileChannel channel;
+    final List<Section> sectionList;
+
+    EtableCatalog(File file, Charset charset, FileChannel channel, List<Section> sectionList) {
+        this.file = file;
+        this.charset = charset;
+        this.channel = channel;
+        this.sectionList = Collections.unmodifiableList(sectionList);
+    }
+
+    /**
+     * Opens a file in the default character set of the platform, unless it starts
+     * with a byte order mark
+     */
+    public static EtableCatalog open(File file) throws IOException {
+        return open(file, Charset.defaultCharset());
+    }
+
+    /**
+     * Opens a file in the given character set, unless it starts with a byte order
+     * mark, and finds its sections
+     */
+    public static EtableCatalog open(File file, Charset charset) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            LineReader reader = new LineReader(new ChannelRangeInputStream(channel, 0, size), charset);
+            if (!LineReader.isAsciiCompatible(reader.getCharset())) {
+                throw new IllegalArgumentException(
+                    "cannot find sections in " + reader.getCharset() + " by byte offset");
+            }
+            List<Section> sectionList = scan(reader, size);
+            return new EtableCatalog(file, reader.getCharset(), channel, sectionList);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads every line once and notes the sections
+     */
+    static List<Section> scan(LineReader reader, long size) throws IOException {
+        List<Section> sectionList = new ArrayList<>();
+        Section section = null;
+        List<Column> columnList = null;
+        String name = null;
+        boolean inHeader = false;
+
+        while (reader.next()) {
+            char[] buf = reader.getBuffer();
+            int len = reader.getLength();
+            switch (LineScanner.classify(buf, 0, len)) {
+                case Etable.HEADER:
+                    if (section != null) {
+                        section.finish(reader.getOffset(), columnList);
+                    }
+                    section = new Section(sectionList.size(), name, reader.getOffset(),
+                        reader.getLineNumber());
+                    sectionList.add(section);
+                    columnList = Etable.createColumnLst(buf, 0, len);
+                    inHeader = true;
+                    name = null;
+                    break;
+                case Etable.CONTINUATION:
+                    if (inHeader) {
+                        List<StringBuffer> nameList = Etable.nameList(columnList);
+                        if (nameList != null) {
+                            Etable.sliceInto(buf, 0, len, columnList, nameList, false);
+                        }
+                    }
+                    name = null;
+                    break;
+                case Etable.RECORD:
+                    if (section != null) {
+                        section.rowCount++;
+                    }
+                    inHeader = false;
+                    name = null;
+                    break;
+                case Etable.DELETED_RECORD:
+                    inHeader = false;
+                    name = null;
+                    break;
+                case Etable.COMMENT:
+                    String comment = new String(buf, 1, len - 1).trim();
+                    if (comment.length() > 0) {
+                        name = comment;
+                    }
+                    break;
+                case LineScanner.BLANK:
+                case Etable.RULE:
+                    /*
+                     * a comment only names a header right after it
+                     */
+                    name = null;
+                    break;
+            }
+        }
+        if (section != null) {
+            section.finish(size, columnList);
+        }
+        return sectionList;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the character set the sections are read in, which may have come
+     * from a byte order mark
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public int getSectionCount() {
+        return sectionList.size();
+    }
+
+    public List<Section> getSectionList() {
+        return sectionList;
+    }
+
+    public Section getSection(int idx) {
+        return sectionList.get(idx);
+    }
+
+    /**
+     * Returns the first section with the given name, ignoring case, or null
+     */
+    public Section getSection(String name) {
+        for (Section section : sectionList) {
+            if (name.equalsIgnoreCase(section.name)) {
+                return section;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the table of a section, parsing it if this is the first time
+     */
+    public Table getTable(int idx) throws IOException {
+        return load(sectionList.get(idx));
+    }
+
+    /**
+     * Returns the table of the first section with the given name, or null if
+     * there is none
+     */
+    public Table getTable(String name) throws IOException {
+        Section section = getSection(name);
+        return section == null ? null : load(section);
+    }
+
+    /**
+     * Returns true if the table of a section has been parsed
+     */
+    public boolean isLoaded(int idx) {
+        Section section = sectionList.get(idx);
+        synchronized (section) {
+            return section.table != null;
+        }
+    }
+
+    Table load(Section section) throws IOException {
+        synchronized (section) {
+            if (section.table == null) {
+                Etable etable = new Etable();
+                etable._name = section.name;
+                etable.pushStream(new ChannelRangeInputStream(channel, section.offset, section.end), charset,
+                    section.lineNumber - 1, section.offset);
+                section.table = etable;
+            }
+            return section.table;
+        }
+    }
+
+    /**
+     * Closes the file. Tables already parsed can still be used.
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Where a table is in the file, and what it looks like
+     */
+    public static class Section {
+        final int index;
+        final String name;
+        final long offset;
+        final long lineNumber;
+        long end;
+        int rowCount;
+        Schema schema;
+        Table table;
+
+        Section(int index, String name, long offset, long lineNumber) {
+            this.index = index;
+            this.name = name;
+            this.offset = offset;
+            this.lineNumber = lineNumber;
+        }
+
+        void finish(long end, List<Column> columnList) {
+            this.end = end;
+            this.schema = SchemaRegistry.getDefault().intern(columnList);
+        }
+
+        /**
+         * Returns the position of the section in the file, starting at 0
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the name given by the comment before the header, or null
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the byte offset of the header line
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Returns the byte offset just past the end of the section
+         */
+        public long getEnd() {
+            return end;
+        }
+
+        /**
+         * Returns the line number of the header line, starting at 1
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Returns the number of records, not counting deleted ones
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public Schema getSchema() {
+            return schema;
+        }
+
+        public List<Column> getColumnList() {
+            return schema.getColumnList();
+        }
+
+        public String toString() {
+            return (name == null ? "section " + index : name) + " at " + offset;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package name.subroutine.etable;
+
+/**
+ * Thrown when a malformed line is found while parsing in strict mode
+ *
+ * @see ParseDiagnostics
+ */
+public class EtableException extends RuntimeException {
+    static final long serialVersionUID = 1L;
+
+    final ParseDiagnostics.Problem problem;
+
+    public EtableException(ParseDiagnostics.Problem problem) {
+        super(problem.toString());
+        this.problem = problem;
+    }
+
+    /**
+     * Returns the line that could not be parsed and the reason
+     */
+    public ParseDiagnostics.Problem getProblem() {
+        return problem;
+    }
+}
@@ -0,0 +1,410 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * The byte offsets of the records of an etable file, so that any record can be
+ * read without parsing the ones before it.
+ *
+ * Each record covers its record line and any continuation lines after it. The
+ * index also notes each header, with its continuation lines, and which header
+ * every record falls under. Deleted records are left out, so records are
+ * numbered the same as by Etable.
+ *
+ * The offsets are kept, in memory and in the sidecar file, as variable-length
+ * deltas: the distance from the end of the previous record and the length of the
+ * record, usually one or two bytes each. Every 64th record has a checkpoint so
+ * that finding a record only decodes the few before it.
+ *
+ * The sidecar also records the length and modification time of the data file,
+ * and is rebuilt by open() when they no longer match.
+ */
+public class EtableIndex {
+    static final int MAGIC = 0x45544958;
+    static final int VERSION = 1;
+
+    /**
+     * Number of records between checkpoints
+     */
+    static final int CHECKPOINT = 64;
+
+    long dataLength;
+    long dataLastModified;
+    String charsetName;
+
+    int headerCount;
+    long[] headerOffset = new long[4];
+    int[] headerLength = new int[4];
+    int[] headerFirstRow = new int[4];
+
+    int rowCount;
+    byte[] rowData = new byte[256];
+    int rowDataLength;
+
+    /**
+     * Position in rowData of every 64th record, and the end of the record before
+     * it
+     */
+    int[] checkpointPos = new int[16];
+    long[] checkpointBase = new long[16];
+
+    /**
+     * End of the last record added
+     */
+    long lastEnd;
+
+    EtableIndex() {
+    }
+
+    /**
+     * Returns the name of the sidecar index of a data file, which is the name of
+     * the file with ".idx" added
+     */
+    public static File sidecarFor(File data) {
+        return new File(data.getPath() + ".idx");
+    }
+
+    /**
+     * Returns the index of a data file, from its sidecar if that is up to date, or
+     * else by building it and writing a new sidecar. Writing the sidecar is only
+     * an attempt: if it fails, as in a read-only directory, the index is still
+     * returned, and built again next time.
+     */
+    public static EtableIndex open(File data, Charset charset) throws IOException {
+        File sidecar = sidecarFor(data);
+        if (sidecar.isFile()) {
+            try {
+                EtableIndex index = read(sidecar);
+                if (index.isFresh(data)) {
+                    return index;
+                }
+            } catch (IOException ex) {
+                /*
+                 * a damaged sidecar is simply rebuilt
+                 */
+            }
+        }
+        EtableIndex index = build(data, charset);
+        try {
+            index.write(sidecar);
+        } catch (IOException ex) {
+            /*
+             * the index in memory is good without its sidecar
+             */
+        }
+        return index;
+    }
+
+    /**
+     * Reads a data file and finds the offsets of its records
+     */
+    public static EtableIndex build(File data, Charset charset) throws IOException {
+        EtableIndex index = new EtableIndex();
+        index.dataLastModified = data.lastModified();
+        try (FileChannel channel = FileChannel.open(data.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            index.dataLength = size;
+            LineReader reader = new LineReader(new ChannelRangeInputStream(channel, 0, size), charset);
+            if (!LineReader.isAsciiCompatible(reader.getCharset())) {
+                throw new IllegalArgumentException(
+                    "cannot index " + reader.getCharset() + " by byte offset");
+            }
+            index.charsetName = reader.getCharset().name();
+            index.scan(reader, size);
+        }
+        return index;
+    }
+
+    void scan(LineReader reader, long size) throws IOException {
+        /*
+         * The header or record being read runs from start to the beginning of the
+         * line after its last record, header or continuation line
+         */
+        int open = 0;
+        long start = 0;
+        long end = 0;
+        boolean endPending = false;
+
+        while (reader.next()) {
+            long offset = reader.getOffset();
+            if (endPending) {
+                end = offset;
+                endPending = false;
+            }
+            int type = LineScanner.classify(reader.getBuffer(), 0, reader.getLength());
+            switch (type) {
+                case Etable.HEADER:
+                case Etable.RECORD:
+                case Etable.DELETED_RECORD:
+                    close(open, start, end);
+                    open = type;
+                    start = offset;
+                    endPending = open != Etable.DELETED_RECORD;
+                    break;
+                case Etable.CONTINUATION:
+                    endPending = open == Etable.HEADER || open == Etable.RECORD;
+                    break;
+            }
+        }
+        close(open, start, endPending ? size : end);
+    }
+
+    void close(int open, long start, long end) {
+        if (open == Etable.HEADER) {
+            addHeader(start, (int) (end - start));
+        } else if (open == Etable.RECORD) {
+            addRow(start, (int) (end - start));
+        }
+    }
+
+    void addHeader(long offset, int length) {
+        if (headerCount == headerOffset.length) {
+            headerOffset = Arrays.copyOf(headerOffset, headerCount * 2);
+            headerLength = Arrays.copyOf(headerLength, headerCount * 2);
+            headerFirstRow = Arrays.copyOf(headerFirstRow, headerCount * 2);
+        }
+        headerOffset[headerCount] = offset;
+        headerLength[headerCount] = length;
+        headerFirstRow[headerCount] = rowCount;
+        headerCount++;
+    }
+
+    void addRow(long offset, int length) {
+        if (rowCount % CHECKPOINT == 0) {
+            int k = rowCount / CHECKPOINT;
+            if (k == checkpointPos.length) {
+                checkpointPos = Arrays.copyOf(checkpointPos, k * 2);
+                checkpointBase = Arrays.copyOf(checkpointBase, k * 2);
+            }
+            checkpointPos[k] = rowDataLength;
+            checkpointBase[k] = lastEnd;
+        }
+        writeVarLong(offset - lastEnd);
+        writeVarLong(length);
+        lastEnd = offset + length;
+        rowCount++;
+    }
+
+    void writeVarLong(long value) {
+        if (rowDataLength + 10 > rowData.length) {
+            rowData = Arrays.copyOf(rowData, rowData.length * 2);
+        }
+        while ((value & ~0x7FL) != 0) {
+            rowData[rowDataLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        rowData[rowDataLength++] = (byte) value;
+    }
+
+    /**
+     * Decodes a number at pos[0] and moves pos[0] past it
+     */
+    long readVarLong(int[] pos) {
+        long value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = rowData[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Returns the offset and the length of a record
+     */
+    long[] range(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + rowCount);
+        }
+        int k = row / CHECKPOINT;
+        int[] pos = { checkpointPos[k] };
+        long base = checkpointBase[k];
+        long offset = 0;
+        long length = 0;
+        for (int i = k * CHECKPOINT; i <= row; i++) {
+            offset = base + readVarLong(pos);
+            length = readVarLong(pos);
+            base = offset + length;
+        }
+        return new long[] { offset, length };
+    }
+
+    /**
+     * Returns the number of records
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the byte offset of a record line
+     */
+    public long getRowOffset(int row) {
+        return range(row)[0];
+    }
+
+    /**
+     * Returns the length in bytes of a record, including its continuation lines
+     */
+    public int getRowLength(int row) {
+        return (int) range(row)[1];
+    }
+
+    public int getHeaderCount() {
+        return headerCount;
+    }
+
+    /**
+     * Returns the byte offset of a header line
+     */
+    public long getHeaderOffset(int header) {
+        return headerOffset[header];
+    }
+
+    /**
+     * Returns the length in bytes of a header, including its continuation lines
+     */
+    public int getHeaderLength(int header) {
+        return headerLength[header];
+    }
+
+    /**
+     * Returns the header that a record falls under, or -1 if the record comes
+     * before the first header
+     */
+    public int getHeaderOfRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + rowCount);
+        }
+        if (headerCount == 0 || headerFirstRow[0] > row) {
+            return -1;
+        }
+        int low = 0;
+        int high = headerCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (headerFirstRow[mid] <= row) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the character set of the data file, which may have come from a byte
+     * order mark
+     */
+    public Charset getCharset() {
+        return Charset.forName(charsetName);
+    }
+
+    /**
+     * Returns true if the data file has the length and modification time it had
+     * when it was indexed
+     */
+    public boolean isFresh(File data) {
+        return data.length() == dataLength && data.lastModified() == dataLastModified;
+    }
+
+    /**
+     * Writes the index to a sidecar file. The file is written under another name
+     * first and then renamed, so readers never see half of it.
+     */
+    public void write(File sidecar) throws IOException {
+        File temp = new File(sidecar.getPath() + ".tmp");
+        try {
+            writeTo(temp);
+            Files.move(temp.toPath(), sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            if (temp.isFile()) {
+                temp.delete();
+            }
+            throw ex;
+        }
+    }
+
+    void writeTo(File temp) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(dataLength);
+            out.writeLong(dataLastModified);
+            out.writeUTF(charsetName);
+            out.writeInt(headerCount);
+            for (int i = 0; i < headerCount; i++) {
+                out.writeLong(headerOffset[i]);
+                out.writeInt(headerLength[i]);
+                out.writeInt(headerFirstRow[i]);
+            }
+            out.writeInt(rowCount);
+            out.writeInt(rowDataLength);
+            out.write(rowData, 0, rowDataLength);
+        }
+    }
+
+    /**
+     * Reads an index from a sidecar file
+     */
+    public static EtableIndex read(File sidecar) throws IOException {
+        long size = sidecar.length();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("not an etable index: " + sidecar);
+            }
+            EtableIndex index = new EtableIndex();
+            index.dataLength = in.readLong();
+            index.dataLastModified = in.readLong();
+            index.charsetName = in.readUTF();
+            /*
+             * each header takes 16 bytes of the file and each record at least 2
+             * bytes of its data, so no count can be bigger than the file allows
+             */
+            int headerCount = check(in.readInt(), size / 16, sidecar);
+            for (int i = 0; i < headerCount; i++) {
+                long offset = in.readLong();
+                int length = in.readInt();
+                index.addHeader(offset, length);
+                index.headerFirstRow[i] = in.readInt();
+            }
+
+            int rowCount = in.readInt();
+            byte[] data = new byte[check(in.readInt(), size, sidecar)];
+            in.readFully(data);
+            check(rowCount, data.length / 2, sidecar);
+
+            /*
+             * decode once to put back the checkpoints
+             */
+            EtableIndex encoded = new EtableIndex();
+            encoded.rowData = data;
+            int[] pos = { 0 };
+            for (int i = 0; i < rowCount; i++) {
+                long offset = index.lastEnd + encoded.readVarLong(pos);
+                index.addRow(offset, (int) encoded.readVarLong(pos));
+            }
+            return index;
+        } catch (EOFException | ArrayIndexOutOfBoundsException ex) {
+            throw new IOException("damaged etable index: " + sidecar, ex);
+        }
+    }
+
+    /**
+     * Returns a count read from a sidecar, or throws if it is negative or more
+     * than limit
+     */
+    static int check(int count, long limit, File sidecar) throws IOException {
+        if (count < 0 || count > limit) {
+            throw new IOException("damaged etable index: " + sidecar);
+        }
+        return count;
+    }
+}
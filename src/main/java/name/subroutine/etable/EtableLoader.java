@@ -0,0 +1,194 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.lang.reflect.*;
+import java.nio.file.*;
+
+/**
+ * Loads many etable files at the same time.
+ *
+ * Loading lots of small files is mostly waiting on the file system, so the files
+ * are parsed concurrently, no more than the parallelism limit at a time. On a
+ * runtime that has virtual threads, each file gets its own virtual thread.
+ * Otherwise a pool with one thread per allowed file is used.
+ *
+ * A file that cannot be loaded does not stop the others. Its exception is kept in
+ * the result.
+ */
+public class EtableLoader {
+    /**
+     * Default number of files loaded at the same time
+     */
+    public static final int DEFAULT_PARALLELISM = 16;
+
+    int parallelism;
+
+    public EtableLoader() {
+        this(DEFAULT_PARALLELISM);
+    }
+
+    public EtableLoader(int parallelism) {
+        setParallelism(parallelism);
+    }
+
+    /**
+     * Sets the number of files loaded at the same time
+     */
+    public EtableLoader setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Loads every regular file in a directory
+     */
+    public Result load(File directory) throws IOException {
+        return load(directory, "*");
+    }
+
+    /**
+     * Loads the files in a directory whose names match a glob, such as "*.tbl"
+     */
+    public Result load(File directory, String glob) throws IOException {
+        List<File> fileList = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath(), glob)) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    fileList.add(path.toFile());
+                }
+            }
+        }
+        Collections.sort(fileList);
+        return load(fileList);
+    }
+
+    /**
+     * Loads the given files
+     *
+     * @return the tables and errors, both in the order of the file list
+     */
+    public Result load(List<File> fileList) throws IOException {
+        ExecutorService executor = createExecutor();
+        Semaphore permit = new Semaphore(parallelism);
+        try {
+            List<Future<Table>> futureList = new ArrayList<>();
+            for (File file : fileList) {
+                futureList.add(executor.submit(() -> {
+                    permit.acquire();
+                    try {
+                        Etable etable = new Etable();
+                        etable.pushFile(file);
+                        return etable;
+                    } finally {
+                        permit.release();
+                    }
+                }));
+            }
+
+            Result result = new Result();
+            for (int i = 0; i < fileList.size(); i++) {
+                File file = fileList.get(i);
+                try {
+                    result.tableMap.put(file, futureList.get(i).get());
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    result.errorMap.put(file, cause instanceof Exception ? (Exception) cause : ex);
+                }
+            }
+            return result;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while loading files");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Uses a virtual thread per task when the runtime has them, or else a fixed
+     * pool of daemon threads
+     */
+    ExecutorService createExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "etable-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * The outcome of loading a set of files
+     */
+    public static class Result {
+        final Map<File, Table> tableMap = new LinkedHashMap<>();
+        final Map<File, Exception> errorMap = new LinkedHashMap<>();
+
+        /**
+         * Returns the tables of the files that were loaded
+         */
+        public Map<File, Table> getTableMap() {
+            return tableMap;
+        }
+
+        /**
+         * Returns the exception of each file that could not be loaded
+         */
+        public Map<File, Exception> getErrorMap() {
+            return errorMap;
+        }
+
+        public boolean hasErrors() {
+            return !errorMap.isEmpty();
+        }
+
+        /**
+         * Puts the records of all the tables into one table. Columns are matched by
+         * name, and the columns of the result are all the names in the order they
+         * are first seen. Values are empty where a table lacks a column.
+         */
+        public Table union() {
+            Etable result = new Etable();
+            for (Table table : tableMap.values()) {
+                for (int i = 0; i < table.getColumnCount(); i++) {
+                    String name = table.getColumn(i).getName();
+                    if (result.getColumn(name) < 0) {
+                        result.pushColumn(name);
+                    }
+                }
+            }
+
+            int columnCount = result.getColumnCount();
+            for (Table table : tableMap.values()) {
+                int[] target = new int[table.getColumnCount()];
+                for (int i = 0; i < target.length; i++) {
+                    target[i] = result.getColumn(table.getColumn(i).getName());
+                }
+
+                for (int i = 0; i < table.getRowCount(); i++) {
+                    String[] valueList = new String[columnCount];
+                    Arrays.fill(valueList, "");
+                    Row source = table.get(i);
+                    for (int j = 0; j < target.length && j < source.getSize(); j++) {
+                        valueList[target[j]] = AbstractTable.cell(source, j).toString();
+                    }
+                    result.push(valueList);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package name.subroutine.etable;
+
+import java.io.*;
+import java.nio.charset.*;
+
+/**
+ * Loads a stream into an Etable in three stages, each on its own thread.
+ *
+ * <ol>
+ * <li>The reader thread reads raw blocks of bytes from the stream.</li>
+ * <li>The splitter thread decodes the blocks into lines, classifies each line
+ * (header, record, continuation and so on) and packs the lines into batches.</li>
+ * <li>The calling thread slices the lines of each batch and appends the records
+ * to the table.</li>
+ * </ol>
+ *
+ * The stages are joined by bounded single-producer, single-consumer ring buffers.
+ * Blocks and batches go back to their producer through a second ring once they
+ * are used, so nothing is allocated per block or per batch after the start.
+ *
+ * Only the last stage touches the table, and it sees every line in file order,
+ * so continuation lines are joined to their header or record exactly as by
+ * pushStream. Lines are handed over a batch at a time, which keeps the cost of
+ * the hand-off small next to the work of each stage.
+ */
+final class EtablePipeline implements Closeable {
+    /**
+     * Size of the blocks read by the first stage
+     */
+    static final int BLOCK_SIZE = 65536;
+
+    /**
+     * Number of blocks that may wait for the splitter
+     */
+    static final int BLOCK_RING_SIZE = 8;
+
+    /**
+     * Most lines in one batch
+     */
+    static final int BATCH_LINES = 1024;
+
+    /**
+     * Number of batches that may wait for the last stage
+     */
+    static final int BATCH_RING_SIZE = 8;
+
+    /**
+     * Marks the end of the blocks
+     */
+    static final CompressedInput.Block END_BLOCK = new CompressedInput.Block(0);
+
+    /**
+     * Marks the end of the batches
+     */
+    static final Batch END_BATCH = new Batch();
+
+    final InputStream in;
+    final Charset charset;
+
+    final SpscRingBuffer<CompressedInput.Block> blockRing = new SpscRingBuffer<>(BLOCK_RING_SIZE);
+    final SpscRingBuffer<CompressedInput.Block> freeBlockRing = new SpscRingBuffer<>(BLOCK_RING_SIZE * 2);
+    final SpscRingBuffer<Batch> batchRing = new SpscRingBuffer<>(BATCH_RING_SIZE);
+    final SpscRingBuffer<Batch> freeBatchRing = new SpscRingBuffer<>(BATCH_RING_SIZE * 2);
+
+    final Thread reader;
+    final Thread splitter;
+
+    volatile Throwable error;
+    volatile boolean closed;
+
+    /**
+     * Starts the reader and splitter threads on a stream. Closing the pipeline
+     * closes the stream.
+     */
+    EtablePipeline(InputStream in, Charset charset) {
+        this.in = in;
+        this.charset = charset;
+
+        /*
+         * the free rings are twice the size of the full ones, so they always have
+         * room for every block or batch there is
+         */
+        for (int i = 0; i < BLOCK_RING_SIZE + 2; i++) {
+            freeBlockRing.offer(new CompressedInput.Block(BLOCK_SIZE));
+        }
+        for (int i = 0; i < BATCH_RING_SIZE + 2; i++) {
+            freeBatchRing.offer(new Batch());
+        }
+
+        reader = new Thread(this::read, "etable-reader");
+        splitter = new Thread(this::split, "etable-splitter");
+        reader.setDaemon(true);
+        splitter.setDaemon(true);
+        reader.start();
+        splitter.start();
+    }
+
+    /**
+     * Adds every line of a stream to a table, read in the given character set
+     * unless it starts with a byte order mark. The stream is closed.
+     */
+    static int push(Etable etable, InputStream in, Charset charset) throws IOException {
+        try (EtablePipeline pipeline = new EtablePipeline(in, charset)) {
+            etable.start();
+            pipeline.drainTo(etable);
+        }
+        return 1;
+    }
+
+    /**
+     * Runs the last stage on the calling thread, until the end of the stream
+     */
+    void drainTo(Etable etable) throws IOException {
+        try {
+            for (;;) {
+                Batch batch = batchRing.take();
+                if (batch == END_BATCH) {
+                    break;
+                }
+                char[] chars = batch.chars;
+                for (int i = 0; i < batch.lineCount; i++) {
+                    etable.pushLine(chars, batch.start[i], batch.length[i], batch.offset[i], batch.type[i]);
+                }
+                batch.clear();
+                freeBatchRing.put(batch);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for lines");
+        } finally {
+            etable.finish();
+        }
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error != null) {
+            throw new IOException("cannot read lines", error);
+        }
+    }
+
+    /**
+     * Runs on the reader thread
+     */
+    void read() {
+        try {
+            while (!closed) {
+                CompressedInput.Block block = freeBlockRing.take();
+                block.length = 0;
+                while (block.length < block.buf.length) {
+                    int count = in.read(block.buf, block.length, block.buf.length - block.length);
+                    if (count < 0) {
+                        break;
+                    }
+                    block.length += count;
+                }
+                if (block.length > 0) {
+                    blockRing.put(block);
+                }
+                if (block.length < block.buf.length) {
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            error = ex;
+        } catch (InterruptedException ex) {
+            return;
+        }
+        try {
+            blockRing.put(END_BLOCK);
+        } catch (InterruptedException ex) {
+            /*
+             * the pipeline is closed
+             */
+        }
+    }
+
+    /**
+     * Runs on the splitter thread
+     */
+    void split() {
+        try {
+            LineReader lineReader = new LineReader(new BlockInputStream(), charset);
+            Batch batch = freeBatchRing.take();
+            while (lineReader.next()) {
+                char[] buf = lineReader.getBuffer();
+                int len = lineReader.getLength();
+                if (batch.lineCount == BATCH_LINES || !batch.fits(len)) {
+                    if (batch.lineCount > 0) {
+                        batchRing.put(batch);
+                        batch = freeBatchRing.take();
+                    }
+                    batch.ensureCapacity(len);
+                }
+                batch.add(buf, len, lineReader.getOffset(), LineScanner.classify(buf, 0, len));
+            }
+            if (batch.lineCount > 0) {
+                batchRing.put(batch);
+            }
+        } catch (IOException | RuntimeException ex) {
+            if (error == null) {
+                error = ex;
+            }
+        } catch (InterruptedException ex) {
+            return;
+        }
+        try {
+            batchRing.put(END_BATCH);
+        } catch (InterruptedException ex) {
+            /*
+             * the pipeline is closed
+             */
+        }
+    }
+
+    /**
+     * Stops both threads, if they are still running, and closes the stream
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        reader.interrupt();
+        splitter.interrupt();
+        try {
+            reader.join();
+            splitter.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        in.close();
+    }
+
+    /**
+     * The blocks of the reader thread, as a stream for the splitter thread
+     */
+    class BlockInputStream extends InputStream {
+        CompressedInput.Block current;
+        int pos;
+
+        /**
+         * Makes current a block with bytes left in it
+         *
+         * @return false at the end of the stream
+         */
+        boolean nextBlock() throws IOException {
+            if (current == END_BLOCK) {
+                return false;
+            }
+            if (current != null && pos < current.length) {
+                return true;
+            }
+            try {
+                if (current != null) {
+                    freeBlockRing.put(current);
+                }
+                current = blockRing.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for bytes");
+            }
+            pos = 0;
+            return current != END_BLOCK;
+        }
+
+        public int read() throws IOException {
+            if (!nextBlock()) {
+                return -1;
+            }
+            return current.buf[pos++] & 0xff;
+        }
+
+        public int read(byte[] buf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextBlock()) {
+                return -1;
+            }
+            int count = Math.min(len, current.length - pos);
+            System.arraycopy(current.buf, pos, buf, off, count);
+            pos += count;
+            return count;
+        }
+    }
+
+    /**
+     * Lines packed one after another into one char array, with where each starts,
+     * how long it is, its offset in the stream and its line type
+     */
+    static class Batch {
+        char[] chars = new char[BLOCK_SIZE];
+        int charCount;
+
+        final int[] start = new int[BATCH_LINES];
+        final int[] length = new int[BATCH_LINES];
+        final long[] offset = new long[BATCH_LINES];
+        final int[] type = new int[BATCH_LINES];
+        int lineCount;
+
+        boolean fits(int len) {
+            return charCount + len <= chars.length;
+        }
+
+        /**
+         * Makes room for one line longer than the array, in an empty batch
+         */
+        void ensureCapacity(int len) {
+            if (len > chars.length) {
+                chars = new char[len];
+            }
+        }
+
+        void add(char[] buf, int len, long lineOffset, int lineType) {
+            System.arraycopy(buf, 0, chars, charCount, len);
+            start[lineCount] = charCount;
+            length[lineCount] = len;
+            offset[lineCount] = lineOffset;
+            type[lineCount] = lineType;
+            charCount += len;
+            lineCount++;
+        }
+
+        void clear() {
+            charCount = 0;
+            lineCount = 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package name.subroutine.etable;
+
+/**
+ * The interfaces of java.util.concurrent.Flow, which this library cannot use
+ * because it is built for Java 8.
+ *
+ * The methods and their contracts are the same as in the JDK (and in Reactive
+ * Streams), so an adapter to the JDK interfaces is a one-line delegation per
+ * method.
+ */
+public final class Flow {
+    private Flow() {
+    }
+
+    /**
+     * A source of items for subscribers, who receive them only as they ask for
+     * them
+     */
+    @FunctionalInterface
+    public static interface Publisher<T> {
+        /**
+         * Adds a subscriber, which is first given its subscription through
+         * onSubscribe
+         */
+        public void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items
+     */
+    public static interface Subscriber<T> {
+        public void onSubscribe(Subscription subscription);
+
+        public void onNext(T item);
+
+        public void onError(Throwable throwable);
+
+        public void onComplete();
+    }
+
+    /**
+     * The link between a publisher and one subscriber
+     */
+    public static interface Subscription {
+        /**
+         * Asks for up to n more items. A request for zero or fewer items ends the
+         * subscription with an IllegalArgumentException.
+         */
+        public void request(long n);
+
+        /**
+         * Asks for no more items. Some may still arrive.
+         */
+        public void cancel();
+    }
+}
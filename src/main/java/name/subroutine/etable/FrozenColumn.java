@@ -0,0 +1,85 @@
+package name.subroutine.etable;
+
+/**
+ * A column definition that cannot be changed.
+ *
+ * Since it cannot change, it can be shared by any number of tables and threads.
+ * The setters throw UnsupportedOperationException.
+ */
+public final class FrozenColumn implements Column {
+    final String name;
+    final int type;
+    final int size;
+    final int offset;
+    final int prec;
+
+    public FrozenColumn(String name, int type, int size, int offset, int prec) {
+        this.name = name;
+        this.type = type;
+        this.size = size;
+        this.offset = offset;
+        this.prec = prec;
+    }
+
+    /**
+     * Creates a frozen copy of a column
+     */
+    public static FrozenColumn of(Column column) {
+        if (column instanceof FrozenColumn) {
+            return (FrozenColumn) column;
+        }
+        return new FrozenColumn(column.getName(), column.getType(), column.getSize(),
+            column.getOffset(), column.prec());
+    }
+
+    static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("column is frozen");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String n) {
+        throw frozen();
+    }
+
+    public void setSize(int s) {
+        throw frozen();
+    }
+
+    public void setType(int t) {
+        throw frozen();
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void prec(int p) {
+        throw frozen();
+    }
+
+    public int prec() {
+        return prec;
+    }
+
+    public void setOffset(int o) {
+        throw frozen();
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns itself, since a frozen column never changes
+     */
+    public Object clone() {
+        return this;
+    }
+}
@@ -0,0 +1,148 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * A record of a FrozenTable.
+ *
+ * The values are Strings kept by the table; the record only knows where its cells
+ * start. Methods that would change the record throw
+ * UnsupportedOperationException.
+ */
+public final class FrozenRow implements Row {
+    final FrozenTable table;
+    final Schema schema;
+    final int index;
+
+    FrozenRow(FrozenTable table, Schema schema, int index) {
+        this.table = table;
+        this.schema = schema;
+        this.index = index;
+    }
+
+    static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("record is frozen");
+    }
+
+    /**
+     * Returns the String in the column specified by columnIndex
+     */
+    public Object get(int columnIndex) {
+        if (columnIndex < 0 || columnIndex >= getSize()) {
+            throw new ArrayIndexOutOfBoundsException(columnIndex);
+        }
+        return table.cells[table.rowStart[index] + columnIndex];
+    }
+
+    /**
+     * Returns the String in the named column, or an empty string if there is no
+     * such column
+     */
+    public Object get(String name) {
+        int idx = getColumn(name);
+        if (idx < 0 || idx >= getSize()) {
+            return "";
+        }
+        return get(idx);
+    }
+
+    /**
+     * The record has no StringBuffers to hand out, and changes made to copies
+     * would be lost, so this is not supported. Use get() or toArray().
+     */
+    public List<StringBuffer> getValueList() {
+        throw frozen();
+    }
+
+    public Row set(int idx, String value) {
+        throw frozen();
+    }
+
+    public Row set(String column, String value) {
+        throw frozen();
+    }
+
+    public Row delete(int idx) {
+        throw frozen();
+    }
+
+    public Row delete(String column) {
+        throw frozen();
+    }
+
+    public Row clearValueList() {
+        throw frozen();
+    }
+
+    public int getColumnCount() {
+        return schema.columnList.size();
+    }
+
+    public int getValueCount() {
+        return getSize();
+    }
+
+    public int getSize() {
+        return table.rowStart[index + 1] - table.rowStart[index];
+    }
+
+    public Column getColumn(int idx) {
+        return schema.columnList.get(idx);
+    }
+
+    public int getColumn(String name) {
+        return schema.getColumn(name);
+    }
+
+    public Row push(String val) {
+        throw frozen();
+    }
+
+    public Row push(Row value) {
+        throw frozen();
+    }
+
+    public Row pushAll(String[] val) {
+        throw frozen();
+    }
+
+    /**
+     * Returns the values as a array of strings, one for each column
+     */
+    public String[] toArray() {
+        String[] array = new String[getColumnCount()];
+        int size = getSize();
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i < size ? (String) get(i) : "";
+        }
+        return array;
+    }
+
+    /**
+     * Returns the record as a string, comma delimited
+     */
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        int size = getSize();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(',');
+            }
+            buf.append((String) get(i));
+        }
+        return buf.toString();
+    }
+
+    public Map<String, String> toMap() {
+        Map<String, String> map = new HashMap<>();
+        int count = Math.min(getColumnCount(), getSize());
+        for (int i = 0; i < count; i++) {
+            map.put(getColumn(i).getName(), (String) get(i));
+        }
+        return map;
+    }
+
+    public Map<String, String> asMap() {
+        return new RowMap(this, schema);
+    }
+}
@@ -0,0 +1,301 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.io.*;
+
+/**
+ * A table that cannot be changed, made by Table.freeze().
+ *
+ * All the cells of the table are kept in one array of Strings, with the start of
+ * each record in a separate array of ints. Nothing is synchronized since nothing
+ * changes after construction, so any number of threads can read at the same time
+ * without contending on locks.
+ *
+ * Methods that would change the table throw UnsupportedOperationException. The
+ * record cursor (first, next, get and so on) is kept separately for each thread.
+ */
+public class FrozenTable implements Table {
+    /**
+     * Columns of the table, shared with other tables that have the same ones
+     */
+    final Schema schema;
+
+    /**
+     * Cells of all the records, one record after another
+     */
+    final String[] cells;
+
+    /**
+     * Record i has cells cells[rowStart[i]] to cells[rowStart[i + 1] - 1]
+     */
+    final int[] rowStart;
+
+    final FrozenRow[] rows;
+
+    /**
+     * The record cursor of each thread
+     */
+    final ThreadLocal<int[]> cursor = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Makes a frozen copy of a table
+     */
+    public FrozenTable(Table source) {
+        this.schema = SchemaRegistry.getDefault().intern(source.getColumnList());
+
+        int rowCount = source.getRowCount();
+        int[] start = new int[rowCount + 1];
+        int cellCount = 0;
+        for (int i = 0; i < rowCount; i++) {
+            start[i] = cellCount;
+            cellCount += source.get(i).getSize();
+        }
+        start[rowCount] = cellCount;
+
+        /*
+         * Records keep the column list they were created with, which may not be the
+         * current column list of the table. Each distinct list is looked up once.
+         */
+        Map<List<Column>, Schema> schemaMap = new IdentityHashMap<>();
+        schemaMap.put(source.getColumnList(), schema);
+
+        String[] cellList = new String[cellCount];
+        FrozenRow[] rowList = new FrozenRow[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            Row row = source.get(i);
+            int size = row.getSize();
+            for (int j = 0; j < size; j++) {
+                Object value = row.get(j);
+                cellList[start[i] + j] = value == null ? "" : value.toString();
+            }
+
+            Schema rowSchema = schema;
+            if (row instanceof AbstractRow && ((AbstractRow) row).columnList != null) {
+                List<Column> columnList = ((AbstractRow) row).columnList;
+                rowSchema = schemaMap.get(columnList);
+                if (rowSchema == null) {
+                    rowSchema = SchemaRegistry.getDefault().intern(columnList);
+                    schemaMap.put(columnList, rowSchema);
+                }
+            }
+            rowList[i] = new FrozenRow(this, rowSchema, i);
+        }
+
+        this.cells = cellList;
+        this.rowStart = start;
+        this.rows = rowList;
+    }
+
+    static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("table is frozen");
+    }
+
+    public void init() {
+        throw frozen();
+    }
+
+    public void clear() {
+        throw frozen();
+    }
+
+    public void clearRowList() {
+        throw frozen();
+    }
+
+    public int getColumnCount() {
+        return schema.columnList.size();
+    }
+
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    public int getSize() {
+        return rows.length;
+    }
+
+    public Table push(Row rec) {
+        throw frozen();
+    }
+
+    public Table push(String[] value) {
+        throw frozen();
+    }
+
+    /**
+     * Creates a record that is not part of this table
+     */
+    public Row createRow(String[] value) {
+        return createRow().pushAll(value);
+    }
+
+    /**
+     * Creates an empty record that is not part of this table
+     */
+    public Row createRow() {
+        return new EtableRow(schema.columnList);
+    }
+
+    public Column createColumn(String name) {
+        return new EtableColumn(name);
+    }
+
+    public Row createRow(List<String> value) {
+        return createRow(value.toArray(new String[value.size()]));
+    }
+
+    public Row first() {
+        cursor.get()[0] = 0;
+        return get();
+    }
+
+    public Row get() {
+        int current = cursor.get()[0];
+        if (current < 0 || current >= rows.length) {
+            return null;
+        }
+        return rows[current];
+    }
+
+    public Row get(int num) {
+        if (num >= rows.length) {
+            return null;
+        }
+        return rows[num];
+    }
+
+    public Object getValue(int columnIndex) {
+        Row rec = get();
+        if (rec == null)
+            return null;
+        return rec.get(columnIndex);
+    }
+
+    public Object getValue(String name) {
+        Row rec = get();
+        if (rec == null)
+            return null;
+        return rec.get(name);
+    }
+
+    public Object getValue(int recordIndex, int columnIndex) {
+        Row rec = get(recordIndex);
+        if (rec == null)
+            return null;
+        return rec.get(columnIndex);
+    }
+
+    public Object getValue(int recordIndex, String name) {
+        Row rec = get(recordIndex);
+        if (rec == null)
+            return null;
+        return rec.get(name);
+    }
+
+    public void setValue(int idx, String val) {
+        throw frozen();
+    }
+
+    public void setValue(String column, String val) {
+        throw frozen();
+    }
+
+    public void next() {
+        cursor.get()[0]++;
+    }
+
+    public boolean bof() {
+        return cursor.get()[0] < 0;
+    }
+
+    public boolean eof() {
+        return cursor.get()[0] >= rows.length;
+    }
+
+    public Row last() {
+        cursor.get()[0] = rows.length - 1;
+        return get();
+    }
+
+    public int pushColumn(Column column) {
+        throw frozen();
+    }
+
+    public int pushColumn(String name) {
+        throw frozen();
+    }
+
+    public int pushColumn(String[] nameList) {
+        throw frozen();
+    }
+
+    public Column getColumn(int idx) {
+        return schema.columnList.get(idx);
+    }
+
+    public int getColumn(String name) {
+        return schema.getColumn(name);
+    }
+
+    public List<Column> setColumnList(String[] list) {
+        throw frozen();
+    }
+
+    public List<Column> setColumnList(List<String> list) {
+        throw frozen();
+    }
+
+    /**
+     * Returns the column list, which cannot be modified
+     */
+    public List<Column> getColumnList() {
+        return schema.columnList;
+    }
+
+    public int pushLine(String buf) {
+        throw frozen();
+    }
+
+    public int pushFile(String fname) throws FileNotFoundException, IOException {
+        throw frozen();
+    }
+
+    public void pushLineList(String[] lineList) {
+        throw frozen();
+    }
+
+    public int pushText(CharSequence text) {
+        throw frozen();
+    }
+
+    public Table pushList(String[] value) {
+        throw frozen();
+    }
+
+    public void set(String[] data, int columnCount) {
+        throw frozen();
+    }
+
+    public Table delete(String name) {
+        throw frozen();
+    }
+
+    public Table delete(int idx) {
+        throw frozen();
+    }
+
+    public Table sort(String[] columnNameList, int option) {
+        throw frozen();
+    }
+
+    public Table sort(String[] columnNameList, int[] optionList) {
+        throw frozen();
+    }
+
+    /**
+     * Returns itself, since it is already frozen
+     */
+    public FrozenTable freeze() {
+        return this;
+    }
+}
@@ -0,0 +1,248 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Groups the records of a table by key columns and computes aggregates for each
+ * group.
+ *
+ * Each cell used by an aggregate is parsed once, no matter how many aggregates use
+ * its column, and the running totals are kept in primitive arrays. Large tables
+ * are split into ranges of records which are aggregated in parallel on the
+ * fork-join pool, and the partial results are merged afterwards.
+ *
+ * The result is a new table with the key columns followed by one column for each
+ * aggregate. Groups appear in the order they are first seen in the source table.
+ */
+public class GroupBy {
+    /**
+     * Ranges with fewer records than this are aggregated without splitting
+     */
+    static final int THRESHOLD = 4096;
+
+    Table table;
+    String[] keyColumnList;
+
+    /**
+     * @throws IllegalArgumentException if a key column is not in the table
+     */
+    public GroupBy(Table table, String[] keyColumnList) {
+        this.table = table;
+        this.keyColumnList = keyColumnList.clone();
+        for (String name : keyColumnList) {
+            column(name);
+        }
+    }
+
+    /**
+     * Finds a column of the table
+     *
+     * @throws IllegalArgumentException if there is no such column
+     */
+    int column(String name) {
+        int idx = table.getColumn(name);
+        if (idx < 0) {
+            throw new IllegalArgumentException("no column " + name);
+        }
+        return idx;
+    }
+
+    /**
+     * Computes the aggregates for each group
+     *
+     * @return a new table with the key columns and the aggregate columns
+     * @throws IllegalArgumentException if a column is not in the table
+     */
+    public Table aggregate(Aggregate... aggregateList) {
+        int[] keyIdx = new int[keyColumnList.length];
+        for (int i = 0; i < keyIdx.length; i++) {
+            keyIdx[i] = column(keyColumnList[i]);
+        }
+
+        /*
+         * Several aggregates over the same column share one slot, so the column is
+         * only parsed once per record.
+         */
+        List<Integer> valueIdxList = new ArrayList<>();
+        int[] slot = new int[aggregateList.length];
+        for (int i = 0; i < aggregateList.length; i++) {
+            Aggregate aggregate = aggregateList[i];
+            if (aggregate.function == Aggregate.COUNT) {
+                slot[i] = -1;
+                continue;
+            }
+            int idx = column(aggregate.column);
+            int found = valueIdxList.indexOf(idx);
+            if (found < 0) {
+                found = valueIdxList.size();
+                valueIdxList.add(idx);
+            }
+            slot[i] = found;
+        }
+        int[] valueIdx = new int[valueIdxList.size()];
+        for (int i = 0; i < valueIdx.length; i++) {
+            valueIdx[i] = valueIdxList.get(i);
+        }
+
+        Map<RowKey, Accumulator> groupMap = ForkJoinPool.commonPool()
+            .invoke(new Task(keyIdx, valueIdx, 0, table.getRowCount()));
+
+        Etable result = new Etable();
+        for (String name : keyColumnList) {
+            result.pushColumn(name);
+        }
+        for (Aggregate aggregate : aggregateList) {
+            result.pushColumn(aggregate.name);
+        }
+        for (Map.Entry<RowKey, Accumulator> entry : groupMap.entrySet()) {
+            String[] valueList = new String[keyColumnList.length + aggregateList.length];
+            System.arraycopy(entry.getKey().valueList, 0, valueList, 0, keyColumnList.length);
+            Accumulator acc = entry.getValue();
+            for (int i = 0; i < aggregateList.length; i++) {
+                valueList[keyColumnList.length + i] = acc.result(aggregateList[i].function, slot[i]);
+            }
+            result.push(valueList);
+        }
+        return result;
+    }
+
+    /**
+     * Formats a number so that whole numbers do not get a trailing ".0"
+     */
+    static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * Running totals of one group
+     */
+    static class Accumulator {
+        long rowCount;
+        final long[] count;
+        final double[] sum;
+        final double[] min;
+        final double[] max;
+
+        Accumulator(int slotCount) {
+            count = new long[slotCount];
+            sum = new double[slotCount];
+            min = new double[slotCount];
+            max = new double[slotCount];
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        }
+
+        void add(int slot, double value) {
+            count[slot]++;
+            sum[slot] += value;
+            if (value < min[slot]) {
+                min[slot] = value;
+            }
+            if (value > max[slot]) {
+                max[slot] = value;
+            }
+        }
+
+        void merge(Accumulator other) {
+            rowCount += other.rowCount;
+            for (int i = 0; i < count.length; i++) {
+                count[i] += other.count[i];
+                sum[i] += other.sum[i];
+                min[i] = Math.min(min[i], other.min[i]);
+                max[i] = Math.max(max[i], other.max[i]);
+            }
+        }
+
+        /**
+         * Returns the value of an aggregate, or an empty string if the group has no
+         * numbers in that column
+         */
+        String result(int function, int slot) {
+            if (function == Aggregate.COUNT) {
+                return Long.toString(rowCount);
+            }
+            if (count[slot] == 0) {
+                return function == Aggregate.SUM ? "0" : "";
+            }
+            switch (function) {
+                case Aggregate.SUM:
+                    return format(sum[slot]);
+                case Aggregate.MIN:
+                    return format(min[slot]);
+                case Aggregate.MAX:
+                    return format(max[slot]);
+                default:
+                    return format(sum[slot] / count[slot]);
+            }
+        }
+    }
+
+    /**
+     * Aggregates a range of records, splitting it in half until it is small
+     * enough
+     */
+    class Task extends RecursiveTask<Map<RowKey, Accumulator>> {
+        static final long serialVersionUID = 1L;
+
+        final int[] keyIdx;
+        final int[] valueIdx;
+        final int start;
+        final int end;
+
+        Task(int[] keyIdx, int[] valueIdx, int start, int end) {
+            this.keyIdx = keyIdx;
+            this.valueIdx = valueIdx;
+            this.start = start;
+            this.end = end;
+        }
+
+        protected Map<RowKey, Accumulator> compute() {
+            if (end - start > THRESHOLD) {
+                int mid = (start + end) >>> 1;
+                Task left = new Task(keyIdx, valueIdx, start, mid);
+                Task right = new Task(keyIdx, valueIdx, mid, end);
+                left.fork();
+                Map<RowKey, Accumulator> rightMap = right.compute();
+                Map<RowKey, Accumulator> leftMap = left.join();
+
+                /*
+                 * merge right into left so the groups keep the order they were first
+                 * seen in
+                 */
+                for (Map.Entry<RowKey, Accumulator> entry : rightMap.entrySet()) {
+                    Accumulator acc = leftMap.get(entry.getKey());
+                    if (acc == null) {
+                        leftMap.put(entry.getKey(), entry.getValue());
+                    } else {
+                        acc.merge(entry.getValue());
+                    }
+                }
+                return leftMap;
+            }
+
+            Map<RowKey, Accumulator> groupMap = new LinkedHashMap<>();
+            for (int i = start; i < end; i++) {
+                Row row = table.get(i);
+                RowKey key = RowKey.of(row, keyIdx);
+                Accumulator acc = groupMap.get(key);
+                if (acc == null) {
+                    acc = new Accumulator(valueIdx.length);
+                    groupMap.put(key, acc);
+                }
+                acc.rowCount++;
+
+                for (int j = 0; j < valueIdx.length; j++) {
+                    double value = NumberParser.parseDouble(AbstractTable.cell(row, valueIdx[j]));
+                    if (!Double.isNaN(value)) {
+                        acc.add(j, value);
+                    }
+                }
+            }
+            return groupMap;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * A table that stays on disk and reads each record only when it is asked for.
+ *
+ * The records are found through an EtableIndex, and each one is read with a
+ * single positional read of its bytes and sliced on its own. The records read
+ * most recently are kept, up to the cache size, so asking for the same record
+ * again does not go back to the disk.
+ *
+ * The table cannot be changed. Methods that would change it throw
+ * UnsupportedOperationException. The records it returns may be shared with
+ * other callers and must not be changed either. Reads are positional, so any
+ * number of threads can read at the same time, and the record cursor (first,
+ * next, get and so on) is kept separately for each thread.
+ */
+public class IndexedTable implements Table, Closeable {
+    /**
+     * Default number of records kept in memory
+     */
+    public static final int DEFAULT_CACHE_SIZE = 64;
+
+    final EtableIndex index;
+    final FileChannel channel;
+    final Charset charset;
+
+    /**
+     * The columns under each header of the file
+     */
+    final Schema[] headerSchema;
+
+    final Schema schema;
+
+    /**
+     * The columns of records that come before the first header
+     */
+    final Schema noSchema = SchemaRegistry.getDefault().intern(Collections.<Column>emptyList());
+
+    int cacheSize = DEFAULT_CACHE_SIZE;
+
+    /**
+     * Records read recently, the least recently used first
+     */
+    final Map<Integer, Row> cache = new LinkedHashMap<Integer, Row>(16, 0.75f, true) {
+        static final long serialVersionUID = 1L;
+
+        protected boolean removeEldestEntry(Map.Entry<Integer, Row> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    final ThreadLocal<int[]> cursor = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Opens a file in the default character set of the platform, using its
+     * sidecar index or building one
+     */
+    public IndexedTable(File data) throws IOException {
+        this(data, Charset.defaultCharset());
+    }
+
+    /**
+     * Opens a file in the given character set, using its sidecar index or
+     * building one
+     */
+    public IndexedTable(File data, Charset charset) throws IOException {
+        this(data, EtableIndex.open(data, charset));
+    }
+
+    /**
+     * Opens a file with an index that has already been built
+     */
+    public IndexedTable(File data, EtableIndex index) throws IOException {
+        this.index = index;
+        this.charset = index.getCharset();
+        this.channel = FileChannel.open(data.toPath(), StandardOpenOption.READ);
+        try {
+            headerSchema = new Schema[index.getHeaderCount()];
+            for (int i = 0; i < headerSchema.length; i++) {
+                Etable etable = new Etable();
+                etable.pushText(read(index.getHeaderOffset(i), index.getHeaderLength(i)));
+                headerSchema[i] = SchemaRegistry.getDefault().intern(etable.getColumnList());
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+
+        /*
+         * like a table that was parsed in full, the columns of the table are those
+         * of the last header
+         */
+        schema = headerSchema.length == 0 ? noSchema : headerSchema[headerSchema.length - 1];
+    }
+
+    /**
+     * Reads and decodes part of the file
+     */
+    String read(long offset, int length) throws IOException {
+        byte[] buf = new byte[length];
+        ByteBuffer target = ByteBuffer.wrap(buf);
+        while (target.hasRemaining()) {
+            if (channel.read(target, offset + target.position()) < 0) {
+                throw new EOFException("file is shorter than its index");
+            }
+        }
+        return new String(buf, charset);
+    }
+
+    /**
+     * Reads and slices one record
+     */
+    Row load(int num) throws IOException {
+        int header = index.getHeaderOfRow(num);
+        Schema rowSchema = header < 0 ? noSchema : headerSchema[header];
+        Etable etable = new Etable();
+        etable.columnList = new ColumnList(rowSchema.getColumnList());
+        etable.schema = rowSchema;
+        etable.pushText(read(index.getRowOffset(num), index.getRowLength(num)));
+
+        AbstractRow row = (AbstractRow) etable.get(0);
+        row.columnList = rowSchema.getColumnList();
+        row.schema = rowSchema;
+        return row;
+    }
+
+    /**
+     * Sets the number of records kept in memory
+     */
+    public void setCacheSize(int cacheSize) {
+        synchronized (cache) {
+            this.cacheSize = cacheSize;
+        }
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public EtableIndex getIndex() {
+        return index;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("table is read only");
+    }
+
+    public void init() {
+        throw readOnly();
+    }
+
+    public void clear() {
+        throw readOnly();
+    }
+
+    public void clearRowList() {
+        throw readOnly();
+    }
+
+    public int getColumnCount() {
+        return schema.getColumnCount();
+    }
+
+    public int getRowCount() {
+        return index.getRowCount();
+    }
+
+    public int getSize() {
+        return index.getRowCount();
+    }
+
+    public Table push(Row rec) {
+        throw readOnly();
+    }
+
+    public Table push(String[] value) {
+        throw readOnly();
+    }
+
+    /**
+     * Creates a record that is not part of this table
+     */
+    public Row createRow(String[] value) {
+        return createRow().pushAll(value);
+    }
+
+    /**
+     * Creates an empty record that is not part of this table
+     */
+    public Row createRow() {
+        return new EtableRow(schema.getColumnList());
+    }
+
+    public Column createColumn(String name) {
+        return new EtableColumn(name);
+    }
+
+    public Row createRow(List<String> value) {
+        return createRow(value.toArray(new String[value.size()]));
+    }
+
+    public Row first() {
+        cursor.get()[0] = 0;
+        return get();
+    }
+
+    public Row get() {
+        return get(cursor.get()[0]);
+    }
+
+    /**
+     * Gets the record with the given record number, reading it from the file if
+     * it is not in memory
+     *
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public Row get(int num) {
+        if (num < 0 || num >= index.getRowCount()) {
+            return null;
+        }
+        Integer key = num;
+        synchronized (cache) {
+            Row row = cache.get(key);
+            if (row != null) {
+                return row;
+            }
+        }
+        Row row;
+        try {
+            row = load(num);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        synchronized (cache) {
+            cache.put(key, row);
+        }
+        return row;
+    }
+
+    public Object getValue(int columnIndex) {
+        Row rec = get();
+        if (rec == null)
+            return null;
+        return rec.get(columnIndex);
+    }
+
+    public Object getValue(String name) {
+        Row rec = get();
+        if (rec == null)
+            return null;
+        return rec.get(name);
+    }
+
+    public Object getValue(int recordIndex, int columnIndex) {
+        Row rec = get(recordIndex);
+        if (rec == null)
+            return null;
+        return rec.get(columnIndex);
+    }
+
+    public Object getValue(int recordIndex, String name) {
+        Row rec = get(recordIndex);
+        if (rec == null)
+            return null;
+        return rec.get(name);
+    }
+
+    public void setValue(int idx, String val) {
+        throw readOnly();
+    }
+
+    public void setValue(String column, String val) {
+        throw readOnly();
+    }
+
+    public void next() {
+        cursor.get()[0]++;
+    }
+
+    public boolean bof() {
+        return cursor.get()[0] < 0;
+    }
+
+    public boolean eof() {
+        return cursor.get()[0] >= index.getRowCount();
+    }
+
+    public Row last() {
+        cursor.get()[0] = index.getRowCount() - 1;
+        return get();
+    }
+
+    public int pushColumn(Column column) {
+        throw readOnly();
+    }
+
+    public int pushColumn(String name) {
+        throw readOnly();
+    }
+
+    public int pushColumn(String[] nameList) {
+        throw readOnly();
+    }
+
+    public Column getColumn(int idx) {
+        return schema.getColumn(idx);
+    }
+
+    public int getColumn(String name) {
+        return schema.getColumn(name);
+    }
+
+    public List<Column> setColumnList(String[] list) {
+        throw readOnly();
+    }
+
+    public List<Column> setColumnList(List<String> list) {
+        throw readOnly();
+    }
+
+    /**
+     * Returns the columns of the last header of the file, which cannot be
+     * modified
+     */
+    public List<Column> getColumnList() {
+        return schema.getColumnList();
+    }
+
+    public int pushLine(String buf) {
+        throw readOnly();
+    }
+
+    public int pushFile(String fname) throws FileNotFoundException, IOException {
+        throw readOnly();
+    }
+
+    public void pushLineList(String[] lineList) {
+        throw readOnly();
+    }
+
+    public int pushText(CharSequence text) {
+        throw readOnly();
+    }
+
+    public Table pushList(String[] value) {
+        throw readOnly();
+    }
+
+    public void set(String[] data, int columnCount) {
+        throw readOnly();
+    }
+
+    public Table delete(String name) {
+        throw readOnly();
+    }
+
+    public Table delete(int idx) {
+        throw readOnly();
+    }
+
+    public Table sort(String[] columnNameList, int option) {
+        throw readOnly();
+    }
+
+    public Table sort(String[] columnNameList, int[] optionList) {
+        throw readOnly();
+    }
+}
@@ -0,0 +1,349 @@
+package name.subroutine.etable;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+
+/**
+ * Reads lines of text from a stream, in a given character set.
+ *
+ * Etable files are nearly always plain ASCII, so lines are found by looking for
+ * line feeds and carriage returns in the raw bytes, and each line is widened from
+ * bytes to chars in one simple loop. Only a line that has a byte above 127 goes
+ * through the full decoder of the character set. This is done for any character
+ * set that agrees with ASCII on the first 128 bytes, such as UTF-8 or ISO-8859-1.
+ * Other character sets, such as UTF-16, are decoded through a Reader.
+ *
+ * A byte order mark at the start of the stream overrides the given character set
+ * and is not part of the first line.
+ *
+ * Lines end at "\n", "\r" or "\r\n", the same as BufferedReader.readLine. The
+ * current line is kept in a char array that is reused for the next line.
+ */
+public class LineReader implements Closeable {
+    /**
+     * Default size of the byte buffer
+     */
+    static final int BUFFER_SIZE = 65536;
+
+    final InputStream in;
+
+    Charset charset;
+
+    /**
+     * Decoder for lines that are not pure ASCII
+     */
+    CharsetDecoder decoder;
+
+    /**
+     * Set when the character set is not ASCII compatible and lines are read
+     * through this reader instead
+     */
+    Reader reader;
+
+    byte[] buf;
+    int pos;
+    int limit;
+    boolean endOfStream;
+
+    /**
+     * Stream offset of buf[0]
+     */
+    long bufOffset;
+
+    char[] line = new char[256];
+    int length;
+    long lineOffset = -1;
+    long lineNumber;
+
+    /**
+     * A carriage return ended the previous line, so a line feed right after it is
+     * part of the same line break
+     */
+    boolean skipLF;
+
+    /**
+     * Reads lines from a stream in the default character set of the platform
+     */
+    public LineReader(InputStream in) throws IOException {
+        this(in, Charset.defaultCharset());
+    }
+
+    public LineReader(InputStream in, Charset charset) throws IOException {
+        this(in, charset, BUFFER_SIZE);
+    }
+
+    LineReader(InputStream in, Charset charset, int bufferSize) throws IOException {
+        this.in = in;
+        this.buf = new byte[Math.max(bufferSize, 4)];
+
+        fill();
+        this.charset = detectBom(charset);
+        if (isAsciiCompatible(this.charset)) {
+            this.decoder = this.charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        } else {
+            /*
+             * Hand the bytes already read, and the rest of the stream, to a Reader
+             */
+            InputStream rest = new SequenceInputStream(
+                new ByteArrayInputStream(buf, pos, limit - pos), in);
+            this.reader = new BufferedReader(new InputStreamReader(rest, this.charset));
+        }
+    }
+
+    /**
+     * Looks for a byte order mark, and skips it if there is one
+     *
+     * @return the character set of the byte order mark, or the given one
+     */
+    Charset detectBom(Charset charset) throws IOException {
+        while (limit < 3 && !endOfStream) {
+            fill();
+        }
+        if (limit >= 3 && (buf[0] & 0xff) == 0xEF && (buf[1] & 0xff) == 0xBB && (buf[2] & 0xff) == 0xBF) {
+            pos = 3;
+            return StandardCharsets.UTF_8;
+        }
+        if (limit >= 2 && (buf[0] & 0xff) == 0xFE && (buf[1] & 0xff) == 0xFF) {
+            pos = 2;
+            return StandardCharsets.UTF_16BE;
+        }
+        if (limit >= 2 && (buf[0] & 0xff) == 0xFF && (buf[1] & 0xff) == 0xFE) {
+            pos = 2;
+            return StandardCharsets.UTF_16LE;
+        }
+        return charset;
+    }
+
+    /**
+     * Returns true if the character set decodes the bytes 0 to 127 as the same
+     * chars, one byte each
+     */
+    static boolean isAsciiCompatible(Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        String decoded = new String(ascii, charset);
+        if (decoded.length() != ascii.length) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length; i++) {
+            if (decoded.charAt(i) != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the character set in use, which may have come from a byte order mark
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Reads more bytes into the buffer, after the ones already there
+     */
+    void fill() throws IOException {
+        if (limit == buf.length) {
+            if (pos > 0) {
+                System.arraycopy(buf, pos, buf, 0, limit - pos);
+                bufOffset += pos;
+                limit -= pos;
+                pos = 0;
+            } else {
+                byte[] bigger = new byte[buf.length * 2];
+                System.arraycopy(buf, 0, bigger, 0, limit);
+                buf = bigger;
+            }
+        }
+        int count = in.read(buf, limit, buf.length - limit);
+        if (count < 0) {
+            endOfStream = true;
+        } else {
+            limit += count;
+        }
+    }
+
+    /**
+     * Advances to the next line
+     *
+     * @return false if there are no more lines
+     */
+    public boolean next() throws IOException {
+        if (reader != null) {
+            return nextFromReader();
+        }
+
+        int scan = pos;
+        while (true) {
+            if (skipLF) {
+                if (pos >= limit && !endOfStream) {
+                    fill();
+                    scan = pos;
+                    continue;
+                }
+                skipLF = false;
+                if (pos < limit && buf[pos] == '\n') {
+                    pos++;
+                }
+                scan = pos;
+            }
+
+            for (; scan < limit; scan++) {
+                byte b = buf[scan];
+                if (b == '\n' || b == '\r') {
+                    setLine(pos, scan);
+                    pos = scan + 1;
+                    skipLF = b == '\r';
+                    return true;
+                }
+            }
+
+            if (endOfStream) {
+                if (pos >= limit) {
+                    return false;
+                }
+                setLine(pos, limit);
+                pos = limit;
+                return true;
+            }
+
+            int consumed = scan - pos;
+            fill();
+            scan = pos + consumed;
+        }
+    }
+
+    /**
+     * Turns buf[start, end) into the current line
+     */
+    void setLine(int start, int end) {
+        lineOffset = bufOffset + start;
+        lineNumber++;
+
+        int len = end - start;
+        if (line.length < len) {
+            line = new char[Math.max(len, line.length * 2)];
+        }
+
+        /*
+         * Widen every byte to a char, and remember if any of them had the high bit
+         * set
+         */
+        int high = 0;
+        for (int i = 0; i < len; i++) {
+            byte b = buf[start + i];
+            high |= b;
+            line[i] = (char) (b & 0xff);
+        }
+        if (high >= 0) {
+            length = len;
+            return;
+        }
+        decode(start, len);
+    }
+
+    /**
+     * Decodes a line that has bytes above 127 with the full decoder
+     */
+    void decode(int start, int len) {
+        int max = (int) Math.ceil(len * (double) decoder.maxCharsPerByte());
+        if (line.length < max) {
+            line = new char[max];
+        }
+        ByteBuffer input = ByteBuffer.wrap(buf, start, len);
+        CharBuffer output = CharBuffer.wrap(line);
+        decoder.reset();
+        decoder.decode(input, output, true);
+        decoder.flush(output);
+        length = output.position();
+    }
+
+    /**
+     * Reads the next line through the Reader, for character sets that are not
+     * ASCII compatible. Stream offsets are not known in this case.
+     */
+    boolean nextFromReader() throws IOException {
+        length = 0;
+        lineOffset = -1;
+        while (true) {
+            int chr = reader.read();
+            if (chr < 0) {
+                if (length == 0) {
+                    return false;
+                }
+                break;
+            }
+            if (skipLF) {
+                skipLF = false;
+                if (chr == '\n') {
+                    continue;
+                }
+            }
+            if (chr == '\n' || chr == '\r') {
+                skipLF = chr == '\r';
+                break;
+            }
+            if (length == line.length) {
+                char[] bigger = new char[line.length * 2];
+                System.arraycopy(line, 0, bigger, 0, length);
+                line = bigger;
+            }
+            line[length++] = (char) chr;
+        }
+        lineNumber++;
+        return true;
+    }
+
+    /**
+     * Returns the chars of the current line. Only the first getLength() chars are
+     * part of the line, and the array is reused by the next line.
+     */
+    public char[] getBuffer() {
+        return line;
+    }
+
+    /**
+     * Returns the length of the current line
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the current line as a string
+     */
+    public String getLine() {
+        return new String(line, 0, length);
+    }
+
+    /**
+     * Returns the offset in bytes of the current line from the start of the
+     * stream, or -1 if it is not known
+     */
+    public long getOffset() {
+        return lineOffset;
+    }
+
+    /**
+     * Returns the number of the current line, starting at 1
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+        in.close();
+    }
+}
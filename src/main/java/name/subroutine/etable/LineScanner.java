@@ -0,0 +1,282 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * Character scanning for etable lines.
+ *
+ * The scans over char arrays look at four chars at a time, packed into a long
+ * (SWAR: SIMD within a register), and only fall back to checking one char at a
+ * time for the word that contains the boundary. Runs of spaces in wide headers
+ * and long column names are skipped four chars per step.
+ *
+ * The scalar versions of each scan are kept. They are used for the tail of each
+ * buffer, and for everything when the system property
+ * "name.subroutine.etable.scalar" is set to true. Both give the same results.
+ */
+final class LineScanner {
+    /**
+     * The line is empty or contains only whitespace
+     */
+    public static final int BLANK = 0;
+
+    /**
+     * The line starts with an identifier that is not defined
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Use the four-chars-at-a-time scans
+     */
+    static final boolean SWAR = !Boolean.getBoolean("name.subroutine.etable.scalar");
+
+    /**
+     * 1 in the lowest bit of each 16-bit lane
+     */
+    static final long LOW = 0x0001000100010001L;
+
+    /**
+     * 1 in the highest bit of each 16-bit lane
+     */
+    static final long HIGH = 0x8000800080008000L;
+
+    /**
+     * Four spaces packed into a long
+     */
+    static final long SPACES = 0x0020002000200020L;
+
+    /**
+     * Bits that are only set in chars outside of ASCII
+     */
+    static final long NON_ASCII = 0xFF80FF80FF80FF80L;
+
+    private LineScanner() {
+    }
+
+    /**
+     * Packs buf[idx] to buf[idx + 3] into a long, one char per 16-bit lane
+     */
+    static long pack(char[] buf, int idx) {
+        return buf[idx]
+            | (long) buf[idx + 1] << 16
+            | (long) buf[idx + 2] << 32
+            | (long) buf[idx + 3] << 48;
+    }
+
+    /**
+     * Returns true if any of the four chars is greater than a space
+     *
+     * The high bit of each lane is cleared first so that the addition cannot carry
+     * into the next lane. Chars that had the high bit set are caught by the "or".
+     */
+    static boolean anyAboveSpace(long word) {
+        return ((((word & ~HIGH) + 0x7FDF * LOW) | word) & HIGH) != 0;
+    }
+
+    /**
+     * Returns true if any of the four chars is a space or less
+     */
+    static boolean anyAtOrBelowSpace(long word) {
+        return ((word - 0x21 * LOW) & ~word & HIGH) != 0;
+    }
+
+    /**
+     * Tells what kind of line this is, by its identifier
+     *
+     * @return one of the line types of Etable, BLANK or UNKNOWN
+     */
+    public static int classify(CharSequence buf) {
+        if (isBlank(buf)) {
+            return BLANK;
+        }
+        return classify(buf.charAt(0));
+    }
+
+    /**
+     * Tells what kind of line this is, by its identifier
+     *
+     * @return one of the line types of Etable, BLANK or UNKNOWN
+     */
+    public static int classify(char[] buf, int off, int end) {
+        if (skipBlank(buf, off, end) >= end) {
+            return BLANK;
+        }
+        return classify(buf[off]);
+    }
+
+    static int classify(char identifier) {
+        switch (identifier) {
+            case '%':
+                return Etable.HEADER;
+            case ' ':
+                return Etable.RECORD;
+            case '*':
+                return Etable.DELETED_RECORD;
+            case '_':
+                return Etable.CONTINUATION;
+            case '-':
+                return Etable.RULE;
+            case '#':
+                return Etable.COMMENT;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns true if the line has nothing but whitespace, the same as
+     * buf.trim().length() == 0 but without making a new string
+     */
+    public static boolean isBlank(CharSequence buf) {
+        int len = buf.length();
+        for (int idx = 0; idx < len; idx++) {
+            if (buf.charAt(idx) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the first char greater than a space, which is what
+     * String.trim() considers whitespace, or end if there is none
+     */
+    public static int skipBlank(char[] buf, int idx, int end) {
+        if (SWAR) {
+            while (idx + 4 <= end && !anyAboveSpace(pack(buf, idx))) {
+                idx += 4;
+            }
+        }
+        return skipBlankScalar(buf, idx, end);
+    }
+
+    static int skipBlankScalar(char[] buf, int idx, int end) {
+        while (idx < end && buf[idx] <= ' ') {
+            idx++;
+        }
+        return idx;
+    }
+
+    /**
+     * Returns the index of the first char that is not Character.isWhitespace, or
+     * end if there is none
+     */
+    public static int skipWhitespace(char[] buf, int idx, int end) {
+        if (!SWAR) {
+            return skipWhitespaceScalar(buf, idx, end);
+        }
+        while (idx < end) {
+            if (idx + 4 <= end && pack(buf, idx) == SPACES) {
+                idx += 4;
+                continue;
+            }
+            if (!Character.isWhitespace(buf[idx])) {
+                break;
+            }
+            idx++;
+        }
+        return idx;
+    }
+
+    static int skipWhitespaceScalar(char[] buf, int idx, int end) {
+        while (idx < end && Character.isWhitespace(buf[idx])) {
+            idx++;
+        }
+        return idx;
+    }
+
+    /**
+     * Returns the index of the first char that is Character.isWhitespace, or end
+     * if there is none
+     */
+    public static int skipWord(char[] buf, int idx, int end) {
+        if (!SWAR) {
+            return skipWordScalar(buf, idx, end);
+        }
+        while (idx < end) {
+            if (idx + 4 <= end) {
+                /*
+                 * printable ASCII is never whitespace, so the whole word can be skipped
+                 */
+                long word = pack(buf, idx);
+                if (!anyAtOrBelowSpace(word) && (word & NON_ASCII) == 0) {
+                    idx += 4;
+                    continue;
+                }
+            }
+            if (Character.isWhitespace(buf[idx])) {
+                break;
+            }
+            idx++;
+        }
+        return idx;
+    }
+
+    static int skipWordScalar(char[] buf, int idx, int end) {
+        while (idx < end && !Character.isWhitespace(buf[idx])) {
+            idx++;
+        }
+        return idx;
+    }
+
+    /**
+     * Takes the lines of a whole document, one at a time
+     */
+    interface LineSink {
+        /**
+         * Takes the line in buf[off, off + len), which starts at offset in the
+         * document. The array may be reused for the next line.
+         */
+        void line(char[] buf, int off, int len, long offset);
+    }
+
+    /**
+     * Hands every line of a document to the sink. Lines end at "\n", "\r" or
+     * "\r\n". Each line is copied into one reused char array, so no string is
+     * made per line.
+     */
+    static void splitLines(CharSequence text, LineSink sink) {
+        char[] line = new char[256];
+        int len = text.length();
+        int idx = 0;
+        while (idx < len) {
+            int start = idx;
+            int count = 0;
+            char chr = 0;
+            for (; idx < len; idx++) {
+                chr = text.charAt(idx);
+                if (chr == '\n' || chr == '\r') {
+                    break;
+                }
+                if (count == line.length) {
+                    line = Arrays.copyOf(line, count * 2);
+                }
+                line[count++] = chr;
+            }
+            sink.line(line, 0, count, start);
+
+            if (idx < len) {
+                idx += chr == '\r' && idx + 1 < len && text.charAt(idx + 1) == '\n' ? 2 : 1;
+            }
+        }
+    }
+
+    /**
+     * Hands every line of the document in buf[off, off + len) to the sink, where
+     * it is, without copying it. Offsets are from off.
+     */
+    static void splitLines(char[] buf, int off, int len, LineSink sink) {
+        int end = off + len;
+        int idx = off;
+        while (idx < end) {
+            int start = idx;
+            while (idx < end && buf[idx] != '\n' && buf[idx] != '\r') {
+                idx++;
+            }
+            sink.line(buf, start, idx - start, start - off);
+
+            if (idx < end) {
+                idx += buf[idx] == '\r' && idx + 1 < end && buf[idx + 1] == '\n' ? 2 : 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package name.subroutine.etable;
+
+/**
+ * Reads numbers out of cell contents.
+ *
+ * Cells are free text, and a numeric column often holds things like "4/5 upg".
+ * Instead of letting Double.parseDouble throw, the shape of the number is checked
+ * first and NaN is returned for anything that is not a plain decimal number.
+ */
+final class NumberParser {
+    /**
+     * Powers of ten that are exactly representable as a double
+     */
+    static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+        1e21, 1e22,
+    };
+
+    private NumberParser() {
+    }
+
+    /**
+     * Parses a decimal number, such as "-12", "3.50" or "1e6"
+     *
+     * Leading and trailing whitespace is ignored.
+     *
+     * @return the value or NaN if the contents are not a number
+     */
+    public static double parseDouble(CharSequence str) {
+        if (str instanceof StringBuffer) {
+            /*
+             * Held for the whole parse, so the value cannot change half way, and
+             * each charAt() only takes again a lock the thread already has. No
+             * copy of the value is made.
+             */
+            synchronized (str) {
+                return parseDouble(str, 0, str.length());
+            }
+        }
+        return parseDouble(str, 0, str.length());
+    }
+
+    /**
+     * Parses a decimal number from str[start, end)
+     *
+     * @return the value or NaN if the contents are not a number
+     */
+    public static double parseDouble(CharSequence str, int start, int end) {
+        while (start < end && str.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start >= end) {
+            return Double.NaN;
+        }
+
+        int idx = start;
+        boolean negative = false;
+        char chr = str.charAt(idx);
+        if (chr == '-' || chr == '+') {
+            negative = chr == '-';
+            idx++;
+        }
+
+        long mantissa = 0;
+        int digitCount = 0;
+        int scale = 0;
+        boolean dot = false;
+        for (; idx < end; idx++) {
+            chr = str.charAt(idx);
+            if (chr >= '0' && chr <= '9') {
+                mantissa = mantissa * 10 + (chr - '0');
+                digitCount++;
+                if (dot) {
+                    scale++;
+                }
+                if (digitCount > 18) {
+                    /*
+                     * too many digits for the fast path; let the library handle it
+                     */
+                    return slowParse(str, start, end);
+                }
+                continue;
+            }
+            if (chr == '.' && !dot) {
+                dot = true;
+                continue;
+            }
+            if (chr == 'e' || chr == 'E') {
+                return digitCount > 0 ? slowParse(str, start, end) : Double.NaN;
+            }
+            return Double.NaN;
+        }
+        if (digitCount == 0) {
+            return Double.NaN;
+        }
+
+        /*
+         * Both the mantissa and the power of ten are exact here, so the division is
+         * correctly rounded, same as Double.parseDouble.
+         */
+        if (mantissa < (1L << 53) && scale < POW10.length) {
+            double value = (double) mantissa / POW10[scale];
+            return negative ? -value : value;
+        }
+        return slowParse(str, start, end);
+    }
+
+    /**
+     * Parses a whole number, such as "-12" or "+7", ignoring leading and trailing
+     * whitespace
+     *
+     * @return the value or missing if the contents are not a whole number or do
+     *         not fit in a long
+     */
+    public static long parseLong(CharSequence str, long missing) {
+        if (str instanceof StringBuffer) {
+            synchronized (str) {
+                return parseLong(str, 0, str.length(), missing);
+            }
+        }
+        return parseLong(str, 0, str.length(), missing);
+    }
+
+    /**
+     * Parses a whole number from str[start, end)
+     */
+    static long parseLong(CharSequence str, int start, int end, long missing) {
+        while (start < end && str.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start >= end) {
+            return missing;
+        }
+
+        int idx = start;
+        boolean negative = false;
+        char chr = str.charAt(idx);
+        if (chr == '-' || chr == '+') {
+            negative = chr == '-';
+            idx++;
+        }
+        if (idx >= end) {
+            return missing;
+        }
+
+        /*
+         * accumulate negatively, since the negative range is one larger
+         */
+        long value = 0;
+        for (; idx < end; idx++) {
+            chr = str.charAt(idx);
+            if (chr < '0' || chr > '9') {
+                return missing;
+            }
+            int digit = chr - '0';
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                return missing;
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                return missing;
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    /**
+     * Hands the string to Double.parseDouble after the shape has been checked
+     */
+    static double slowParse(CharSequence str, int start, int end) {
+        int idx = start;
+        char chr = str.charAt(idx);
+        if (chr == '-' || chr == '+') {
+            idx++;
+        }
+        boolean digit = false;
+        boolean exponent = false;
+        boolean dot = false;
+        for (; idx < end; idx++) {
+            chr = str.charAt(idx);
+            if (chr >= '0' && chr <= '9') {
+                digit = true;
+                continue;
+            }
+            if (chr == '.' && !dot && !exponent) {
+                dot = true;
+                continue;
+            }
+            if ((chr == 'e' || chr == 'E') && digit && !exponent) {
+                exponent = true;
+                digit = false;
+                if (idx + 1 < end && (str.charAt(idx + 1) == '-' || str.charAt(idx + 1) == '+')) {
+                    idx++;
+                }
+                continue;
+            }
+            return Double.NaN;
+        }
+        if (!digit) {
+            return Double.NaN;
+        }
+        return Double.parseDouble(str.subSequence(start, end).toString());
+    }
+}
@@ -0,0 +1,148 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * Collects the problems found while parsing etable lines.
+ *
+ * Lines are checked before they are sliced, so a malformed line costs a call to
+ * report() rather than an exception. Only the first few problems are kept, up to
+ * the capacity, but all of them are counted.
+ *
+ * In LENIENT mode, the default, a malformed line is skipped and parsing goes on,
+ * except for a record before any header, which is still added to the table as a
+ * record without values. In STRICT mode the first problem throws an
+ * EtableException.
+ */
+public class ParseDiagnostics {
+    /**
+     * Skip malformed lines and keep going
+     */
+    public static final int LENIENT = 400;
+
+    /**
+     * Stop at the first malformed line
+     */
+    public static final int STRICT = 401;
+
+    /**
+     * Default number of problems kept
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    int mode;
+    int capacity;
+    List<Problem> problemList = new ArrayList<>();
+    long errorCount;
+
+    public ParseDiagnostics() {
+        this(LENIENT);
+    }
+
+    public ParseDiagnostics(int mode) {
+        this(mode, DEFAULT_CAPACITY);
+    }
+
+    public ParseDiagnostics(int mode, int capacity) {
+        if (mode != LENIENT && mode != STRICT) {
+            throw new IllegalArgumentException("unknown mode " + mode);
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        this.mode = mode;
+        this.capacity = capacity;
+    }
+
+    public int getMode() {
+        return mode;
+    }
+
+    public boolean isStrict() {
+        return mode == STRICT;
+    }
+
+    /**
+     * Records a problem, and throws it in strict mode
+     *
+     * @param lineNumber number of the line, starting at 1
+     * @param offset offset of the line from the start of the input, or -1 if it
+     *            is not known
+     */
+    public void report(long lineNumber, long offset, String reason) {
+        errorCount++;
+        Problem problem = null;
+        if (problemList.size() < capacity) {
+            problem = new Problem(lineNumber, offset, reason);
+            problemList.add(problem);
+        }
+        if (mode == STRICT) {
+            throw new EtableException(problem == null ? new Problem(lineNumber, offset, reason) : problem);
+        }
+    }
+
+    /**
+     * Returns the problems kept, in the order they were found
+     */
+    public List<Problem> getProblemList() {
+        return Collections.unmodifiableList(problemList);
+    }
+
+    /**
+     * Returns the number of problems found, including those that were not kept
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public boolean hasErrors() {
+        return errorCount > 0;
+    }
+
+    public void clear() {
+        problemList.clear();
+        errorCount = 0;
+    }
+
+    /**
+     * A malformed line
+     */
+    public static class Problem {
+        final long lineNumber;
+        final long offset;
+        final String reason;
+
+        public Problem(long lineNumber, long offset, String reason) {
+            this.lineNumber = lineNumber;
+            this.offset = offset;
+            this.reason = reason;
+        }
+
+        /**
+         * Returns the number of the line, starting at 1
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Returns the offset of the line from the start of the input, in bytes
+         * when reading a stream and in chars when reading text, or -1 if it is not
+         * known
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public String toString() {
+            if (offset < 0) {
+                return "line " + lineNumber + ": " + reason;
+            }
+            return "line " + lineNumber + " (offset " + offset + "): " + reason;
+        }
+    }
+}
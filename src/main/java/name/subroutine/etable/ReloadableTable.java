@@ -0,0 +1,232 @@
+package name.subroutine.etable;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Holds the latest version of a table that is loaded from a file, and loads it
+ * again when the file changes.
+ *
+ * Each version is parsed in full on the loading thread and frozen before it is
+ * published, by swapping a single reference. A reader calls get() and uses the
+ * table it is given for as long as it likes: that version never changes, even
+ * after a newer one is published, and no reader ever waits for a load or sees a
+ * table that is half loaded. Versions that no reader holds any more are
+ * reclaimed by the garbage collector like any other object.
+ *
+ * watch() starts a thread that watches the directory of the file. Editors and
+ * copy tools often write a file in several steps, so a load only starts once the
+ * file has had no events for the debounce time, 500 milliseconds by default.
+ * When a load fails, the previous version stays published and the error is kept
+ * for getLastError().
+ */
+public class ReloadableTable implements Closeable {
+    /**
+     * Default quiet time before a changed file is loaded, in milliseconds
+     */
+    public static final long DEFAULT_DEBOUNCE = 500;
+
+    final File file;
+    final Charset charset;
+
+    final AtomicReference<FrozenTable> current = new AtomicReference<>();
+    final AtomicLong version = new AtomicLong();
+
+    volatile long debounce = DEFAULT_DEBOUNCE;
+    volatile Exception lastError;
+
+    /**
+     * Length and modification time of the file when it was last loaded
+     */
+    long loadedLength = -1;
+    long loadedLastModified = -1;
+
+    WatchService watchService;
+    Thread watcher;
+
+    /**
+     * Loads the first version of a file, read in the given character set unless
+     * it starts with a byte order mark
+     */
+    public ReloadableTable(File file, Charset charset) throws IOException {
+        this.file = file.getAbsoluteFile();
+        this.charset = charset;
+        reload();
+    }
+
+    /**
+     * Returns the latest version of the table, which never changes. Hold on to it
+     * for as long as a consistent view is needed.
+     */
+    public Table get() {
+        return current.get();
+    }
+
+    /**
+     * Returns the number of versions loaded so far, starting at 1
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the error of the last load that failed, or null if the last load
+     * succeeded
+     */
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    public long getDebounce() {
+        return debounce;
+    }
+
+    /**
+     * Sets the quiet time before a changed file is loaded
+     */
+    public void setDebounce(long millis) {
+        this.debounce = millis;
+    }
+
+    /**
+     * Loads the file now, on the calling thread, and publishes the new version
+     *
+     * @throws IOException if the file cannot be read, in which case the previous
+     *                     version stays published
+     */
+    public synchronized void reload() throws IOException {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        try {
+            Etable etable = new Etable();
+            etable.pushFile(file, charset);
+            current.set(etable.freeze());
+        } catch (IOException | RuntimeException ex) {
+            lastError = ex;
+            throw ex;
+        }
+        loadedLength = length;
+        loadedLastModified = lastModified;
+        lastError = null;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Loads the file if it is not the same as when it was last loaded
+     *
+     * @return true if a new version was published
+     */
+    public synchronized boolean reloadIfChanged() throws IOException {
+        if (file.length() == loadedLength && file.lastModified() == loadedLastModified) {
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+    /**
+     * Starts watching the file for changes, on a thread of its own
+     */
+    public synchronized void watch() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        Path directory = file.toPath().getParent();
+        WatchService service = directory.getFileSystem().newWatchService();
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+        watchService = service;
+        watcher = new Thread(() -> run(service), "etable-reload " + file.getName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Runs on the watching thread
+     */
+    void run(WatchService service) {
+        Path name = file.toPath().getFileName();
+        try {
+            for (;;) {
+                if (!concerns(service.take(), name)) {
+                    continue;
+                }
+
+                /*
+                 * wait until the file has been quiet for the debounce time; events
+                 * about other files in the directory do not count
+                 */
+                long quietUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounce);
+                for (;;) {
+                    long wait = quietUntil - System.nanoTime();
+                    if (wait <= 0) {
+                        break;
+                    }
+                    WatchKey key = service.poll(wait, TimeUnit.NANOSECONDS);
+                    if (key == null) {
+                        break;
+                    }
+                    if (concerns(key, name)) {
+                        quietUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounce);
+                    }
+                }
+                try {
+                    reload();
+                } catch (IOException | RuntimeException ex) {
+                    /*
+                     * kept in lastError; the next change will try again
+                     */
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            /*
+             * closed
+             */
+        }
+    }
+
+    /**
+     * Returns true if any event of the key is about the file, and gets the key
+     * ready for more events
+     */
+    static boolean concerns(WatchKey key, Path name) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) {
+                found = true;
+            }
+        }
+        key.reset();
+        return found;
+    }
+
+    /**
+     * Stops watching the file. The latest version can still be used.
+     */
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            thread = watcher;
+            watcher = null;
+            if (watchService != null) {
+                watchService.close();
+                watchService = null;
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -106,4 +106,21 @@ public interface Row {
      * Returns the value as a "map", or associative array
      */
     public Map<String, String> toMap();
+
+    /**
+     * Returns a read-only view of the record as a map from column names to
+     * values. Nothing is copied: the names come from the schema of the columns,
+     * shared by every record, and each value is read from the record when it is
+     * asked for. Names are looked up without regard to case.
+     *
+     * This default interns a schema for the columns on each call; records that
+     * already know their schema return it directly.
+     */
+    public default Map<String, String> asMap() {
+        List<Column> columnList = new ArrayList<>(getColumnCount());
+        for (int i = 0; i < getColumnCount(); i++) {
+            columnList.add(getColumn(i));
+        }
+        return new RowMap(this, SchemaRegistry.getDefault().intern(columnList));
+    }
 }
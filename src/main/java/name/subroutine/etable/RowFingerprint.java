@@ -0,0 +1,178 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * 128-bit fingerprints of the values of records, and a set to keep them in.
+ *
+ * A fingerprint is two independent 64-bit hashes, computed in one pass over the
+ * chars of the cells, with the length of each cell mixed in so that values
+ * cannot run into each other. The cells are read where they are: no String is
+ * made, and a StringBuffer is read under a single lock rather than one per char.
+ */
+final class RowFingerprint {
+    private RowFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of the given columns of a record into out[0] and
+     * out[1]. A column the record has no value for counts as empty.
+     */
+    static void of(Row row, int[] columnIdx, long[] out) {
+        long h1 = 0xCBF29CE484222325L;
+        long h2 = 0x6A09E667F3BCC909L;
+        int size = row.getSize();
+        for (int c = 0; c < columnIdx.length; c++) {
+            int idx = columnIdx[c];
+            Object value = idx < 0 || idx >= size ? null : row.get(idx);
+            int len = 0;
+            if (value instanceof StringBuffer) {
+                StringBuffer buf = (StringBuffer) value;
+                synchronized (buf) {
+                    len = buf.length();
+                    for (int i = 0; i < len; i++) {
+                        char chr = buf.charAt(i);
+                        h1 = (h1 ^ chr) * 0x100000001B3L;
+                        h2 = Long.rotateLeft(h2 + chr * 0x9E3779B97F4A7C15L, 27) * 0xBF58476D1CE4E5B9L;
+                    }
+                }
+            } else if (value != null) {
+                CharSequence str = value instanceof CharSequence ? (CharSequence) value : value.toString();
+                len = str.length();
+                for (int i = 0; i < len; i++) {
+                    char chr = str.charAt(i);
+                    h1 = (h1 ^ chr) * 0x100000001B3L;
+                    h2 = Long.rotateLeft(h2 + chr * 0x9E3779B97F4A7C15L, 27) * 0xBF58476D1CE4E5B9L;
+                }
+            }
+            h1 = (h1 ^ len) * 0x9E3779B97F4A7C15L;
+            h2 = Long.rotateLeft(h2 ^ len, 31) * 0x94D049BB133111EBL;
+        }
+        out[0] = TableDiff.mix(h1);
+        out[1] = TableDiff.mix(h2 ^ h1 >>> 29);
+    }
+
+    /**
+     * Returns true if two records have the same values in the given columns
+     */
+    static boolean same(Row a, int[] aIdx, Row b, int[] bIdx) {
+        for (int c = 0; c < aIdx.length; c++) {
+            if (!sameChars(AbstractTable.cell(a, aIdx[c]), AbstractTable.cell(b, bIdx[c]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two values char by char, without copying either. A StringBuffer is
+     * read under its lock, as in of().
+     */
+    static boolean sameChars(CharSequence x, CharSequence y) {
+        if (x instanceof StringBuffer) {
+            synchronized (x) {
+                return sameLocked(x, y);
+            }
+        }
+        return sameLocked(x, y);
+    }
+
+    static boolean sameLocked(CharSequence x, CharSequence y) {
+        if (y instanceof StringBuffer) {
+            synchronized (y) {
+                return compare(x, y);
+            }
+        }
+        return compare(x, y);
+    }
+
+    static boolean compare(CharSequence x, CharSequence y) {
+        int len = x.length();
+        if (len != y.length()) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (x.charAt(i) != y.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An open-addressing hash set of fingerprints, kept in primitive arrays.
+     *
+     * Each fingerprint may carry a reference, such as the number of the record it
+     * came from, so that the caller can check a match against the real values.
+     * Fingerprints that match but whose values turn out to differ are both kept.
+     */
+    static class FingerprintSet {
+        long[] hi = new long[16];
+        long[] lo = new long[16];
+
+        /**
+         * The reference plus one; 0 marks an empty slot
+         */
+        int[] ref = new int[16];
+
+        int size;
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Adds a fingerprint unless it is there already
+         *
+         * @param sameAs tells whether the values of the reference of a matching
+         *               fingerprint are really those being added; null to trust
+         *               the fingerprint
+         * @return true if the fingerprint was added
+         */
+        boolean add(long h, long l, int reference, IntPredicate sameAs) {
+            int mask = ref.length - 1;
+            for (int slot = (int) h & mask;; slot = (slot + 1) & mask) {
+                if (ref[slot] == 0) {
+                    hi[slot] = h;
+                    lo[slot] = l;
+                    ref[slot] = reference + 1;
+                    if (++size * 2 > ref.length) {
+                        grow();
+                    }
+                    return true;
+                }
+                if (hi[slot] == h && lo[slot] == l && (sameAs == null || sameAs.test(ref[slot] - 1))) {
+                    return false;
+                }
+            }
+        }
+
+        void grow() {
+            long[] oldHi = hi;
+            long[] oldLo = lo;
+            int[] oldRef = ref;
+            hi = new long[oldRef.length * 2];
+            lo = new long[oldRef.length * 2];
+            ref = new int[oldRef.length * 2];
+            int mask = ref.length - 1;
+            for (int i = 0; i < oldRef.length; i++) {
+                if (oldRef[i] == 0) {
+                    continue;
+                }
+                int slot = (int) oldHi[i] & mask;
+                while (ref[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hi[slot] = oldHi[i];
+                lo[slot] = oldLo[i];
+                ref[slot] = oldRef[i];
+            }
+        }
+
+        void clear() {
+            Arrays.fill(ref, 0);
+            size = 0;
+        }
+    }
+}
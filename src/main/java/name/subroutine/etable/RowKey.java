@@ -0,0 +1,50 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * The values of one or more key columns of a record, usable as a hash key.
+ *
+ * The hash code is computed once, since a key is usually hashed and compared
+ * many times while grouping or joining.
+ */
+final class RowKey {
+    final String[] valueList;
+    final int hash;
+
+    RowKey(String[] valueList) {
+        this.valueList = valueList;
+        this.hash = Arrays.hashCode(valueList);
+    }
+
+    /**
+     * Creates a key from the given columns of a record. Missing values become
+     * empty strings.
+     */
+    static RowKey of(Row row, int[] columnIdx) {
+        String[] key = new String[columnIdx.length];
+        for (int i = 0; i < columnIdx.length; i++) {
+            key[i] = AbstractTable.cell(row, columnIdx[i]).toString();
+        }
+        return new RowKey(key);
+    }
+
+    public int hashCode() {
+        return hash;
+    }
+
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RowKey)) {
+            return false;
+        }
+        RowKey other = (RowKey) obj;
+        return hash == other.hash && Arrays.equals(valueList, other.valueList);
+    }
+
+    public String toString() {
+        return Arrays.toString(valueList);
+    }
+}
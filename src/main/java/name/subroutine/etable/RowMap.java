@@ -0,0 +1,77 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * A read-only map view of a record, returned by Row.asMap().
+ *
+ * The keys are those of the schema, which all records of a table share, and
+ * the values are read from the record on each lookup, so the view always shows
+ * the current contents of the record. A column without a value in the record
+ * reads as an empty string.
+ */
+final class RowMap extends AbstractMap<String, String> {
+    final Row row;
+    final Schema schema;
+
+    RowMap(Row row, Schema schema) {
+        this.row = row;
+        this.schema = schema;
+    }
+
+    String value(int idx) {
+        return AbstractTable.cell(row, idx).toString();
+    }
+
+    public int size() {
+        return schema.keys.length;
+    }
+
+    public boolean isEmpty() {
+        return schema.keys.length == 0;
+    }
+
+    public boolean containsKey(Object key) {
+        return schema.keySet.contains(key);
+    }
+
+    public String get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int idx = schema.getColumn((String) key);
+        return idx < 0 ? null : value(idx);
+    }
+
+    public Set<String> keySet() {
+        return schema.keySet;
+    }
+
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            public int size() {
+                return schema.keys.length;
+            }
+
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+                    int k;
+
+                    public boolean hasNext() {
+                        return k < schema.keys.length;
+                    }
+
+                    public Map.Entry<String, String> next() {
+                        if (k >= schema.keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        String key = schema.keys[k];
+                        String value = value(schema.keyColumn[k]);
+                        k++;
+                        return new AbstractMap.SimpleImmutableEntry<>(key, value);
+                    }
+                };
+            }
+        };
+    }
+}
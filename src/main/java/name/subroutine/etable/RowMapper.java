@@ -0,0 +1,430 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.math.*;
+
+/**
+ * Turns records into objects of a given class.
+ *
+ * The class is bound to a list of columns once. Each property of the class is
+ * matched to a column by name, ignoring case and anything that is not a letter
+ * or a digit, so the column "First Name" fills the property firstName. The
+ * method handles that read the cell, convert it and store it are put together
+ * at that time, so mapping a record only allocates the object, any strings it
+ * holds and the boxes of wrapper properties. Primitive numbers and their wrappers
+ * are read straight from the cell, without making a string first; booleans,
+ * BigDecimal and BigInteger beyond the range of a long still make one.
+ *
+ * A record class (Java 16 and up) is built through its canonical constructor,
+ * with one argument per component. Any other class needs a constructor without
+ * arguments, and is filled through setters named after the columns, or else
+ * through fields of the same names. A setter or field of a type that cannot be
+ * converted to is an error. Columns without a property are ignored,
+ * and properties without a column are left alone; a record component without a
+ * column gets the value of an empty cell.
+ *
+ * A cell that does not hold a number gives 0 for whole-number properties, NaN
+ * for float and double, and null for the wrapper classes and BigDecimal.
+ * Properties may be of any primitive type or its wrapper, String, CharSequence,
+ * StringBuffer, BigDecimal or BigInteger.
+ */
+public class RowMapper<T> {
+    static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Converters from a CharSequence to each supported type, by type
+     */
+    static final Map<Class<?>, MethodHandle> CONVERTER = new HashMap<>();
+
+    /**
+     * (Row, int) CharSequence: the cell of a record at a column
+     */
+    static final MethodHandle CELL;
+
+    static {
+        try {
+            for (Method method : RowMapper.class.getDeclaredMethods()) {
+                if (method.getName().startsWith("to") && Modifier.isStatic(method.getModifiers())
+                        && method.getParameterCount() == 1
+                        && method.getParameterTypes()[0] == CharSequence.class) {
+                    CONVERTER.put(method.getReturnType(), LOOKUP.unreflect(method));
+                }
+            }
+            CELL = LOOKUP.findStatic(AbstractTable.class, "cell",
+                MethodType.methodType(CharSequence.class, Row.class, int.class));
+        } catch (IllegalAccessException | NoSuchMethodException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    final Class<T> type;
+    final List<Column> columnList;
+
+    /**
+     * (Row) Object for a record class, or () Object for any other class
+     */
+    final MethodHandle constructor;
+
+    /**
+     * (Object, Row) void, one for each property that has a column
+     */
+    final MethodHandle[] setter;
+
+    RowMapper(Class<T> type, List<Column> columnList, MethodHandle constructor, MethodHandle[] setter) {
+        this.type = type;
+        this.columnList = columnList;
+        this.constructor = constructor;
+        this.setter = setter;
+    }
+
+    /**
+     * Binds a class to the columns of a table
+     */
+    public static <T> RowMapper<T> of(Class<T> type, Table table) {
+        return of(type, table.getColumnList());
+    }
+
+    /**
+     * Binds a class to a list of columns
+     *
+     * @throws IllegalArgumentException if the class cannot be built, or a
+     *                                  property with a column has a type that
+     *                                  cannot be converted
+     */
+    public static <T> RowMapper<T> of(Class<T> type, List<Column> columnList) {
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (int i = columnList.size() - 1; i >= 0; i--) {
+            columnIndex.put(key(columnList.get(i).getName()), i);
+        }
+        try {
+            Object[] component = recordComponents(type);
+            if (component != null) {
+                return bindRecord(type, columnList, columnIndex, component);
+            }
+            return bindBean(type, columnList, columnIndex);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalArgumentException("cannot map records to " + type.getName(), ex);
+        }
+    }
+
+    /**
+     * Returns the name of a column or property as it is matched: only letters and
+     * digits, in lower case
+     */
+    static String key(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char chr = name.charAt(i);
+            if (Character.isLetterOrDigit(chr)) {
+                key.append(Character.toLowerCase(chr));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the record components of a class, or null if it is not a record or
+     * records do not exist in this version of Java
+     */
+    static Object[] recordComponents(Class<?> type) throws ReflectiveOperationException {
+        Method isRecord;
+        try {
+            isRecord = Class.class.getMethod("isRecord");
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+        if (!(Boolean) isRecord.invoke(type)) {
+            return null;
+        }
+        return (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+    }
+
+    static <T> RowMapper<T> bindRecord(Class<T> type, List<Column> columnList, Map<String, Integer> columnIndex,
+            Object[] component) throws ReflectiveOperationException {
+        Class<?>[] parameterType = new Class<?>[component.length];
+        String[] name = new String[component.length];
+        for (int i = 0; i < component.length; i++) {
+            Class<?> componentClass = component[i].getClass();
+            name[i] = (String) componentClass.getMethod("getName").invoke(component[i]);
+            parameterType[i] = (Class<?>) componentClass.getMethod("getType").invoke(component[i]);
+        }
+        Constructor<T> canonical = type.getDeclaredConstructor(parameterType);
+        canonical.setAccessible(true);
+        MethodHandle handle = LOOKUP.unreflectConstructor(canonical);
+
+        /*
+         * read each argument from its cell, then pass the one record to all of
+         * them
+         */
+        MethodHandle[] filter = new MethodHandle[component.length];
+        for (int i = 0; i < component.length; i++) {
+            Integer idx = columnIndex.get(key(name[i]));
+            filter[i] = reader(parameterType[i], idx == null ? -1 : idx, name[i]);
+        }
+        handle = MethodHandles.filterArguments(handle, 0, filter);
+        handle = MethodHandles.permuteArguments(handle, MethodType.methodType(type, Row.class),
+            new int[component.length]);
+        handle = handle.asType(MethodType.methodType(Object.class, Row.class));
+        return new RowMapper<>(type, columnList, handle, null);
+    }
+
+    static <T> RowMapper<T> bindBean(Class<T> type, List<Column> columnList, Map<String, Integer> columnIndex)
+            throws ReflectiveOperationException {
+        Constructor<T> noArgument = type.getDeclaredConstructor();
+        noArgument.setAccessible(true);
+        MethodHandle constructor = LOOKUP.unreflectConstructor(noArgument)
+            .asType(MethodType.methodType(Object.class));
+
+        /*
+         * setters first, then fields, each matched to a column at most once
+         */
+        Map<Integer, MethodHandle> store = new TreeMap<>();
+        Map<Integer, String> storeName = new HashMap<>();
+        Map<Integer, Method> unsupported = new HashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                String name = method.getName();
+                if (!name.startsWith("set") || name.length() == 3 || method.getParameterCount() != 1
+                        || Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+                    continue;
+                }
+                Integer idx = columnIndex.get(key(name.substring(3)));
+                if (idx == null || store.containsKey(idx)) {
+                    continue;
+                }
+                if (!CONVERTER.containsKey(method.getParameterTypes()[0])) {
+                    /*
+                     * an error only if no overload of the setter can be used
+                     */
+                    unsupported.put(idx, method);
+                    continue;
+                }
+                method.setAccessible(true);
+                store.put(idx, LOOKUP.unreflect(method));
+                storeName.put(idx, name.substring(3));
+            }
+        }
+        for (Map.Entry<Integer, Method> entry : unsupported.entrySet()) {
+            if (!store.containsKey(entry.getKey())) {
+                Method method = entry.getValue();
+                reader(method.getParameterTypes()[0], entry.getKey(), method.getName().substring(3));
+            }
+        }
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifier = field.getModifiers();
+                if (Modifier.isStatic(modifier) || Modifier.isFinal(modifier) || field.isSynthetic()) {
+                    continue;
+                }
+                Integer idx = columnIndex.get(key(field.getName()));
+                if (idx != null && !store.containsKey(idx)) {
+                    field.setAccessible(true);
+                    store.put(idx, LOOKUP.unreflectSetter(field));
+                    storeName.put(idx, field.getName());
+                }
+            }
+        }
+
+        MethodHandle[] setter = new MethodHandle[store.size()];
+        int i = 0;
+        for (Map.Entry<Integer, MethodHandle> entry : store.entrySet()) {
+            MethodHandle handle = entry.getValue();
+            /*
+             * a setter may return something, such as this for chaining
+             */
+            handle = handle.asType(handle.type().changeReturnType(void.class));
+            Class<?> valueType = handle.type().parameterType(1);
+            handle = MethodHandles.filterArguments(handle, 1,
+                reader(valueType, entry.getKey(), storeName.get(entry.getKey())));
+            setter[i++] = handle.asType(MethodType.methodType(void.class, Object.class, Row.class));
+        }
+        return new RowMapper<>(type, columnList, constructor, setter);
+    }
+
+    /**
+     * Returns a handle (Row) valueType that reads and converts a cell
+     */
+    static MethodHandle reader(Class<?> valueType, int idx, String name) {
+        MethodHandle converter = CONVERTER.get(valueType);
+        if (converter == null) {
+            throw new IllegalArgumentException("cannot convert a cell to " + valueType.getName() + " for " + name);
+        }
+        return MethodHandles.filterReturnValue(MethodHandles.insertArguments(CELL, 1, idx), converter);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the columns this mapper was bound to
+     */
+    public List<Column> getColumnList() {
+        return columnList;
+    }
+
+    /**
+     * Makes an object from a record, which must have the columns this mapper was
+     * bound to
+     */
+    public T map(Row row) {
+        try {
+            if (setter == null) {
+                return type.cast((Object) constructor.invokeExact(row));
+            }
+            Object target = (Object) constructor.invokeExact();
+            for (MethodHandle handle : setter) {
+                handle.invokeExact(target, row);
+            }
+            return type.cast(target);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("cannot map a record to " + type.getName(), ex);
+        }
+    }
+
+    /**
+     * Makes an object from every record of a table
+     */
+    public List<T> mapAll(Table table) {
+        int count = table.getRowCount();
+        List<T> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(map(table.get(i)));
+        }
+        return list;
+    }
+
+    /*
+     * The converters below are found by name: each static method "to..." that
+     * takes a CharSequence converts to its return type.
+     */
+
+    static String toString(CharSequence value) {
+        return value.toString();
+    }
+
+    static CharSequence toCharSequence(CharSequence value) {
+        return value.toString();
+    }
+
+    static StringBuffer toStringBuffer(CharSequence value) {
+        return new StringBuffer(value);
+    }
+
+    static Object toObject(CharSequence value) {
+        return value.toString();
+    }
+
+    static long toLong(CharSequence value) {
+        return NumberParser.parseLong(value, 0);
+    }
+
+    static int toInt(CharSequence value) {
+        long number = NumberParser.parseLong(value, 0);
+        return number == (int) number ? (int) number : 0;
+    }
+
+    static short toShort(CharSequence value) {
+        long number = NumberParser.parseLong(value, 0);
+        return number == (short) number ? (short) number : 0;
+    }
+
+    static byte toByte(CharSequence value) {
+        long number = NumberParser.parseLong(value, 0);
+        return number == (byte) number ? (byte) number : 0;
+    }
+
+    static double toDouble(CharSequence value) {
+        return NumberParser.parseDouble(value);
+    }
+
+    static float toFloat(CharSequence value) {
+        return (float) NumberParser.parseDouble(value);
+    }
+
+    /**
+     * Reads "true", "yes", "y" and "1", in any case, as true
+     */
+    static boolean toBoolean(CharSequence value) {
+        String text = value.toString().trim();
+        return text.equalsIgnoreCase("true") || text.equalsIgnoreCase("yes") || text.equalsIgnoreCase("y")
+            || text.equals("1");
+    }
+
+    static char toChar(CharSequence value) {
+        return value.length() == 0 ? '\0' : value.charAt(0);
+    }
+
+    static Long toLongObject(CharSequence value) {
+        long number = NumberParser.parseLong(value, 0);
+        if (number != 0) {
+            return number;
+        }
+        /*
+         * 0 is either the number or the missing value; a second default tells them
+         * apart
+         */
+        return NumberParser.parseLong(value, 1) == 0 ? 0L : null;
+    }
+
+    static Integer toIntegerObject(CharSequence value) {
+        Long number = toLongObject(value);
+        return number == null || number != number.intValue() ? null : number.intValue();
+    }
+
+    static Short toShortObject(CharSequence value) {
+        Long number = toLongObject(value);
+        return number == null || number != number.shortValue() ? null : number.shortValue();
+    }
+
+    static Byte toByteObject(CharSequence value) {
+        Long number = toLongObject(value);
+        return number == null || number != number.byteValue() ? null : number.byteValue();
+    }
+
+    static Double toDoubleObject(CharSequence value) {
+        double number = NumberParser.parseDouble(value);
+        return Double.isNaN(number) ? null : number;
+    }
+
+    static Float toFloatObject(CharSequence value) {
+        double number = NumberParser.parseDouble(value);
+        return Double.isNaN(number) ? null : (float) number;
+    }
+
+    static Boolean toBooleanObject(CharSequence value) {
+        return value.toString().trim().isEmpty() ? null : toBoolean(value);
+    }
+
+    static Character toCharacter(CharSequence value) {
+        return value.length() == 0 ? null : value.charAt(0);
+    }
+
+    static BigDecimal toBigDecimal(CharSequence value) {
+        if (Double.isNaN(NumberParser.parseDouble(value))) {
+            return null;
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    static BigInteger toBigInteger(CharSequence value) {
+        if (toLongObject(value) != null) {
+            return BigInteger.valueOf(NumberParser.parseLong(value, 0));
+        }
+        if (Double.isNaN(NumberParser.parseDouble(value))) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.toString().trim()).toBigIntegerExact();
+        } catch (ArithmeticException ex) {
+            /*
+             * the number has a fraction
+             */
+            return null;
+        }
+    }
+}
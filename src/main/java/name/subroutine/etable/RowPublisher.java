@@ -0,0 +1,232 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Publishes the records of an etable file, channel or text as they are parsed,
+ * without loading the table first.
+ *
+ * Records are read only when the subscriber asks for them through
+ * Subscription.request(n), one for each item asked for, and handed over right
+ * away. Nothing is buffered beyond the one line read ahead to see whether the
+ * record is continued, so a record is only published once its continuation
+ * lines are complete.
+ *
+ * Records are published on the thread that calls request(), as part of that
+ * call. A subscriber may call request() again from onNext(); the records are
+ * then published by the loop that is already running, not by a nested call.
+ *
+ * Each record is a new EtableRow of its own that the subscriber may keep.
+ *
+ * The input is opened when the first record is asked for and closed at the end,
+ * on an error, or as soon as the subscription is cancelled. A publisher of a file
+ * or of text opens it again for each subscriber. A publisher of a channel can
+ * only have one subscriber.
+ */
+public class RowPublisher implements Flow.Publisher<Row> {
+    /**
+     * Opens a new scanner over the input
+     */
+    @FunctionalInterface
+    interface Source {
+        RowScanner open() throws IOException;
+    }
+
+    final Source source;
+
+    /**
+     * Only set for a channel, which can only be read once
+     */
+    final AtomicBoolean once;
+
+    RowPublisher(Source source, boolean once) {
+        this.source = source;
+        this.once = once ? new AtomicBoolean() : null;
+    }
+
+    /**
+     * Publishes the records of a file, read in the given character set unless it
+     * starts with a byte order mark. A file compressed with gzip or zlib is
+     * inflated on the fly.
+     */
+    public static RowPublisher of(File file, Charset charset) {
+        return new RowPublisher(
+            () -> new RowScanner(CompressedInput.open(file), charset), false);
+    }
+
+    /**
+     * Publishes the records of a channel, which is closed at the end
+     */
+    public static RowPublisher of(ReadableByteChannel channel, Charset charset) {
+        return new RowPublisher(() -> new RowScanner(Channels.newInputStream(channel), charset), true);
+    }
+
+    /**
+     * Publishes the records of a whole document that is already in memory
+     */
+    public static RowPublisher of(CharSequence text) {
+        return new RowPublisher(() -> new RowScanner(
+            new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8)),
+            StandardCharsets.UTF_8), false);
+    }
+
+    public void subscribe(Flow.Subscriber<? super Row> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        RowSubscription subscription = new RowSubscription(subscriber);
+        if (once != null && once.getAndSet(true)) {
+            /*
+             * set before onSubscribe, so that an early request cannot read
+             */
+            subscription.error = new IllegalStateException("a channel can only be published once");
+            subscription.cancelled = true;
+        }
+        subscriber.onSubscribe(subscription);
+        if (subscription.error != null) {
+            subscription.drain();
+        }
+    }
+
+    /**
+     * Copies the current record of a scanner into a row of its own
+     */
+    static Row copy(RowScanner scanner) {
+        AbstractRow current = (AbstractRow) scanner.getRow();
+        EtableRow row = new EtableRow(current.columnList);
+        row.schema = current.schema;
+        for (StringBuffer value : current.valueList) {
+            row.valueList.add(new StringBuffer(value));
+        }
+        return row;
+    }
+
+    /**
+     * The state of one subscriber
+     *
+     * Every call to request() or cancel() enters drain(), but only the call that
+     * raises work from zero runs the loop; the others just leave work for it. So
+     * the scanner is only ever used by one thread at a time, and the subscriber
+     * is never called from two threads at once.
+     */
+    class RowSubscription implements Flow.Subscription {
+        final Flow.Subscriber<? super Row> subscriber;
+
+        /**
+         * Records asked for and not yet published
+         */
+        final AtomicLong requested = new AtomicLong();
+
+        /**
+         * Calls to drain() that have not been handled by the loop
+         */
+        final AtomicInteger work = new AtomicInteger();
+
+        volatile boolean cancelled;
+        volatile Throwable error;
+
+        RowScanner scanner;
+        boolean done;
+
+        RowSubscription(Flow.Subscriber<? super Row> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("non-positive request: " + n));
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+            drain();
+        }
+
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        /**
+         * Ends the subscription with an error at the next turn of the loop
+         */
+        void fail(Throwable ex) {
+            error = ex;
+            cancelled = true;
+            drain();
+        }
+
+        void drain() {
+            if (work.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                loop();
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Publishes records while there is demand
+         */
+        void loop() {
+            while (!done) {
+                if (cancelled) {
+                    finish();
+                    if (error != null) {
+                        subscriber.onError(error);
+                    }
+                    return;
+                }
+                if (requested.get() == 0) {
+                    return;
+                }
+                Row row;
+                try {
+                    if (scanner == null) {
+                        scanner = source.open();
+                    }
+                    if (!scanner.next()) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    row = copy(scanner);
+                } catch (IOException | RuntimeException ex) {
+                    finish();
+                    subscriber.onError(ex);
+                    return;
+                }
+                if (requested.get() != Long.MAX_VALUE) {
+                    requested.decrementAndGet();
+                }
+                subscriber.onNext(row);
+            }
+        }
+
+        /**
+         * Closes the input and ends the subscription
+         */
+        void finish() {
+            done = true;
+            cancelled = true;
+            if (scanner != null) {
+                try {
+                    scanner.close();
+                } catch (IOException ex) {
+                    /*
+                     * nothing more will be read from it anyway
+                     */
+                }
+                scanner = null;
+            }
+        }
+    }
+}
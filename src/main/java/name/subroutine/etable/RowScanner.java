@@ -0,0 +1,185 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.io.*;
+import java.nio.charset.*;
+
+/**
+ * Reads the records of an etable stream one at a time, without keeping them.
+ *
+ * There is only one row object. Each call to next() empties its buffers and fills
+ * them with the following record, so once the buffers have grown to fit the
+ * widest record, reading more records allocates nothing. Whoever reads the row
+ * must copy what they want to keep before calling next() again.
+ *
+ * A record is only complete when the line after it is not a continuation, so
+ * that line is read ahead and held until the next call.
+ *
+ * Header lines start a new set of columns, as in Etable.pushLine. The columns in
+ * effect for the current row are given by getColumnList().
+ */
+public class RowScanner implements Closeable {
+    final LineReader reader;
+
+    List<Column> columnList = new Vector<>();
+
+    final ScanRow row = new ScanRow();
+
+    /**
+     * Type of the last line that was not a continuation or a comment
+     */
+    int status;
+
+    /**
+     * The reader is on a line that has not been handled yet
+     */
+    boolean pending;
+
+    /**
+     * A header line has been read and may still be continued
+     */
+    boolean headerOpen;
+
+    public RowScanner(InputStream in, Charset charset) throws IOException {
+        this(new LineReader(in, charset));
+    }
+
+    public RowScanner(LineReader reader) {
+        this.reader = reader;
+        row.setColumnList(columnList);
+    }
+
+    /**
+     * Advances to the next record
+     *
+     * @return false if there are no more records
+     */
+    public boolean next() throws IOException {
+        boolean found = false;
+        while (pending || reader.next()) {
+            pending = false;
+            char[] buf = reader.getBuffer();
+            int len = reader.getLength();
+
+            int type = LineScanner.classify(buf, 0, len);
+            switch (type) {
+                case Etable.HEADER:
+                case Etable.RECORD:
+                case Etable.DELETED_RECORD:
+                    if (found) {
+                        /*
+                         * this line ends the record; keep it for the next call
+                         */
+                        pending = true;
+                        return true;
+                    }
+                    status = type;
+                    if (headerOpen) {
+                        internColumns();
+                    }
+                    if (type == Etable.HEADER) {
+                        columnList = Etable.createColumnLst(buf, 0, len);
+                        headerOpen = true;
+                    } else if (type == Etable.RECORD) {
+                        row.reset();
+                        Etable.sliceInto(buf, 0, len, columnList, row.valueList, true);
+                        found = true;
+                    }
+                    break;
+                case Etable.CONTINUATION:
+                    if (status == Etable.HEADER) {
+                        Etable.sliceInto(buf, 0, len, columnList, Etable.nameList(columnList), false);
+                    } else if (found) {
+                        Etable.sliceInto(buf, 0, len, columnList, row.valueList, false);
+                    }
+                    break;
+            }
+        }
+        if (headerOpen) {
+            internColumns();
+        }
+        return found;
+    }
+
+    /**
+     * Switches to the shared columns of the header just read, now that it is
+     * complete
+     */
+    void internColumns() {
+        headerOpen = false;
+        Schema schema = SchemaRegistry.getDefault().intern(columnList);
+        columnList = schema.getColumnList();
+        row.setColumnList(columnList);
+        row.schema = schema;
+    }
+
+    /**
+     * Returns the current record. This is the same object every time, and its
+     * contents are replaced by the next call to next().
+     */
+    public Row getRow() {
+        return row;
+    }
+
+    /**
+     * Returns the columns of the current record
+     */
+    public List<Column> getColumnList() {
+        return columnList;
+    }
+
+    /**
+     * Returns the number of the last line read, starting at 1. This is one line
+     * past the current record when the line after it has been read ahead.
+     */
+    public long getLineNumber() {
+        return reader.getLineNumber();
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * A row whose value buffers are kept and emptied for each record
+     */
+    static class ScanRow extends AbstractRow {
+        /**
+         * Every buffer this row has had, so that they survive changes of columns
+         */
+        StringBuffer[] pool = new StringBuffer[0];
+
+        void setColumnList(List<Column> columnList) {
+            this.columnList = columnList;
+            int count = columnList.size();
+            if (pool.length < count) {
+                StringBuffer[] bigger = Arrays.copyOf(pool, count);
+                for (int i = pool.length; i < count; i++) {
+                    bigger[i] = new StringBuffer();
+                }
+                pool = bigger;
+            }
+            valueList.clear();
+            for (int i = 0; i < count; i++) {
+                valueList.add(pool[i]);
+            }
+        }
+
+        /**
+         * Empties the buffers, putting back any that were replaced through set()
+         */
+        void reset() {
+            int count = columnList.size();
+            if (valueList.size() != count) {
+                setColumnList(columnList);
+            }
+            for (int i = 0; i < count; i++) {
+                StringBuffer value = pool[i];
+                if (valueList.get(i) != value) {
+                    valueList.set(i, value);
+                }
+                value.setLength(0);
+            }
+        }
+    }
+}
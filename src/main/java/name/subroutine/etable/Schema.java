@@ -0,0 +1,243 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * A list of column definitions that cannot be changed, with an index of the
+ * columns by name.
+ *
+ * Schemas are made by SchemaRegistry, which gives the same schema to every table
+ * with the same header, so the columns and their index are only kept once no
+ * matter how many tables use them.
+ *
+ * Names are not case sensitive. If two columns have the same name, the first
+ * one is found, the same as with Table.getColumn(String).
+ */
+public final class Schema {
+    final List<Column> columnList;
+    final Column[] columns;
+    final Map<String, Integer> index;
+    final String signature;
+
+    /**
+     * The names found by the index, in column order, and their columns
+     */
+    final String[] keys;
+    final int[] keyColumn;
+    final Set<String> keySet;
+
+    Schema(List<? extends Column> source) {
+        this(source, signature(source));
+    }
+
+    Schema(List<? extends Column> source, String signature) {
+        columns = new Column[source.size()];
+        Map<String, Integer> nameIndex = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < columns.length; i++) {
+            Column column = FrozenColumn.of(source.get(i));
+            columns[i] = column;
+            if (!nameIndex.containsKey(column.getName())) {
+                nameIndex.put(column.getName(), i);
+            }
+        }
+        columnList = Collections.unmodifiableList(Arrays.asList(columns));
+        index = nameIndex;
+        this.signature = signature;
+
+        keys = new String[nameIndex.size()];
+        keyColumn = new int[keys.length];
+        int k = 0;
+        for (int i = 0; i < columns.length; i++) {
+            if (nameIndex.get(columns[i].getName()) == i) {
+                keys[k] = columns[i].getName();
+                keyColumn[k++] = i;
+            }
+        }
+        keySet = new KeySet();
+    }
+
+    /**
+     * The names of the columns, without duplicates, looked up without regard to
+     * case the same as getColumn(String)
+     */
+    final class KeySet extends AbstractSet<String> {
+        public Iterator<String> iterator() {
+            return Arrays.asList(keys).iterator();
+        }
+
+        public int size() {
+            return keys.length;
+        }
+
+        public boolean contains(Object key) {
+            return key instanceof String && index.containsKey(key);
+        }
+    }
+
+    /**
+     * Returns a string that is the same for two column lists if and only if
+     * their columns have the same names, types, offsets and sizes
+     */
+    static String signature(List<? extends Column> columnList) {
+        StringBuilder sig = new StringBuilder();
+        for (Column column : columnList) {
+            sig.append(column.getName()).append('\0')
+                .append(column.getType()).append(',')
+                .append(column.getOffset()).append(',')
+                .append(column.getSize()).append(',')
+                .append(column.prec()).append('\0');
+        }
+        return sig.toString();
+    }
+
+    /**
+     * Returns the columns, which cannot be changed
+     */
+    public List<Column> getColumnList() {
+        return columnList;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public Column getColumn(int idx) {
+        return columns[idx];
+    }
+
+    /**
+     * Gets a column index by name or -1 if not found
+     */
+    public int getColumn(String name) {
+        Integer idx = index.get(name);
+        return idx == null ? -1 : idx;
+    }
+
+    /**
+     * Gets the index of a named column of a list, or -1 if not found, through the
+     * schema while the list still matches it.
+     *
+     * The name of a column can be changed through its public buffer without the
+     * schema knowing, so a column found by the schema is checked against the name,
+     * and a name the schema does not find, or finds on a column that was renamed,
+     * is looked for by going through the list.
+     */
+    static int indexOf(Schema schema, List<Column> list, String name) {
+        if (schema != null && schema.matches(list)) {
+            int idx = schema.getColumn(name);
+            if (idx >= 0 && hasName(list.get(idx), name)) {
+                return idx;
+            }
+        }
+        for (int i = 0; i < list.size(); i++) {
+            if (hasName(list.get(i), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the column has the name, ignoring case the same as
+     * String.equalsIgnoreCase, without making a string of the name
+     */
+    static boolean hasName(Column column, String name) {
+        if (!(column instanceof AbstractColumn)) {
+            return name.equalsIgnoreCase(column.getName());
+        }
+        StringBuffer buf = ((AbstractColumn) column).name;
+        synchronized (buf) {
+            int len = buf.length();
+            if (len != name.length()) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                char a = buf.charAt(i);
+                char b = name.charAt(i);
+                if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b)
+                        && Character.toLowerCase(a) != Character.toLowerCase(b)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the names of the columns, in order and without duplicates, which
+     * cannot be changed. Looking a name up in the set ignores case.
+     */
+    public Set<String> getKeySet() {
+        return keySet;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * Returns true if the list holds exactly the columns of this schema, in
+     * order. A table or record that has changed its column list since it got
+     * the schema no longer matches it.
+     */
+    public boolean matches(List<Column> list) {
+        if (list == null || list.size() != columns.length) {
+            return false;
+        }
+        if (list == columnList) {
+            return true;
+        }
+        if (list instanceof ColumnList) {
+            return ((ColumnList) list).matches(this);
+        }
+        if (list instanceof Vector) {
+            /*
+             * holding the lock of the vector makes each get() inside a cheap
+             * re-entry instead of a lock of its own
+             */
+            synchronized (list) {
+                return sameColumns(list);
+            }
+        }
+        return sameColumns(list);
+    }
+
+    boolean sameColumns(List<Column> list) {
+        if (list.size() != columns.length) {
+            return false;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            Column column = list.get(i);
+            if (column != columns[i] && !boundTo(column, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the column is an unchanged copy of column i of this schema
+     */
+    boolean boundTo(Column column, int i) {
+        if (!(column instanceof AbstractColumn)) {
+            return false;
+        }
+        AbstractColumn bound = (AbstractColumn) column;
+        return bound.schema == this && bound.schemaIndex == i;
+    }
+
+    /**
+     * Marks the columns of a list, which must have been interned into this
+     * schema, as unchanged copies of its columns. The list then matches the
+     * schema until one of its columns is changed.
+     */
+    void bind(List<Column> list) {
+        for (int i = 0; i < list.size(); i++) {
+            Column column = list.get(i);
+            if (column instanceof AbstractColumn) {
+                ((AbstractColumn) column).schema = this;
+                ((AbstractColumn) column).schemaIndex = i;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Keeps one Schema for each distinct header.
+ *
+ * Loading many tables with the same few headers would otherwise create a new
+ * set of columns for each table. Column lists are matched by their names, types,
+ * offsets and sizes.
+ *
+ * The registry is safe to use from many threads. It stops adding schemas once it
+ * holds its limit, after which new headers get schemas of their own that are not
+ * shared.
+ */
+public class SchemaRegistry {
+    /**
+     * Default number of distinct schemas kept
+     */
+    public static final int DEFAULT_LIMIT = 4096;
+
+    static final SchemaRegistry DEFAULT = new SchemaRegistry(DEFAULT_LIMIT);
+
+    final ConcurrentMap<String, Schema> schemaMap = new ConcurrentHashMap<>();
+    final int limit;
+
+    public SchemaRegistry(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the registry used by the tables
+     */
+    public static SchemaRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the schema for the given columns, creating it if it is new
+     */
+    public Schema intern(List<? extends Column> columnList) {
+        String signature = Schema.signature(columnList);
+        Schema schema = schemaMap.get(signature);
+        if (schema != null) {
+            return schema;
+        }
+        schema = new Schema(columnList, signature);
+        if (schemaMap.size() >= limit) {
+            return schema;
+        }
+        Schema prev = schemaMap.putIfAbsent(signature, schema);
+        return prev == null ? schema : prev;
+    }
+
+    /**
+     * Returns the number of schemas kept
+     */
+    public int size() {
+        return schemaMap.size();
+    }
+
+    public void clear() {
+        schemaMap.clear();
+    }
+}
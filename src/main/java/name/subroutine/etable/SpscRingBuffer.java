@@ -0,0 +1,130 @@
+package name.subroutine.etable;
+
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * A bounded queue between exactly one producer thread and one consumer thread.
+ *
+ * With a single thread on each side, neither needs a lock: the producer only
+ * writes the tail and the consumer only writes the head. Each side keeps its own
+ * copy of the other's index and only reads the shared one when the copy says the
+ * buffer is full or empty.
+ *
+ * put() and take() wait by yielding, then by parking for short periods, so a
+ * stalled stage does not burn a CPU.
+ */
+final class SpscRingBuffer<E> {
+    /**
+     * Number of times to yield before parking
+     */
+    static final int YIELD_COUNT = 16;
+
+    /**
+     * How long to park while waiting, in nanoseconds
+     */
+    static final long PARK_NANOS = 20000;
+
+    final Object[] buffer;
+    final int mask;
+
+    /**
+     * Index of the next element to take, written only by the consumer
+     */
+    final AtomicLong head = new AtomicLong();
+
+    /**
+     * Index of the next element to put, written only by the producer
+     */
+    final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The producer's copy of head, and the consumer's copy of tail
+     */
+    long headCache;
+    long tailCache;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    SpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        buffer = new Object[size];
+        mask = size - 1;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Adds an element if there is room. Only the producer may call this.
+     *
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        long t = tail.get();
+        if (t - headCache >= buffer.length) {
+            headCache = head.get();
+            if (t - headCache >= buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) t & mask] = element;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element, if there is one. Only the consumer may call
+     * this.
+     *
+     * @return null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long h = head.get();
+        if (h >= tailCache) {
+            tailCache = tail.get();
+            if (h >= tailCache) {
+                return null;
+            }
+        }
+        int idx = (int) h & mask;
+        E element = (E) buffer[idx];
+        buffer[idx] = null;
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * Adds an element, waiting for room
+     */
+    void put(E element) throws InterruptedException {
+        for (int spin = 0; !offer(element); spin++) {
+            pause(spin);
+        }
+    }
+
+    /**
+     * Removes the oldest element, waiting for one
+     */
+    E take() throws InterruptedException {
+        E element;
+        for (int spin = 0; (element = poll()) == null; spin++) {
+            pause(spin);
+        }
+        return element;
+    }
+
+    static void pause(int spin) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (spin < YIELD_COUNT) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
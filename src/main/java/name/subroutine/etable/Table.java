@@ -2,6 +2,7 @@ package name.subroutine.etable;
 
 import java.util.*;
 import java.io.*;
+import java.util.function.*;
 
 public interface Table {
     /**
@@ -217,6 +218,17 @@ public interface Table {
      */
     public void pushLineList(String[] lineList);
 
+    /**
+     * Adds every line of a whole document, such as the contents of a file that is
+     * already in memory. Lines end at "\n", "\r" or "\r\n".
+     *
+     * This default hands each line to pushLine(String).
+     */
+    public default int pushText(CharSequence text) {
+        LineScanner.splitLines(text, (buf, off, len, offset) -> pushLine(new String(buf, off, len)));
+        return 1;
+    }
+
     /**
      * Appends an etable with an array Columns must be set first!!! (don't include
      * the columns in the array because it needs column information to append)
@@ -240,4 +252,67 @@ public interface Table {
      * Deletes a column
      */
     public Table delete(int idx);
+
+    /**
+     * Sorts the records by the given columns, most significant first
+     *
+     * @param option one of the TableSorter options, applied to every column
+     */
+    public default Table sort(String[] columnNameList, int option) {
+        return new TableSorter(columnNameList, option).sort(this);
+    }
+
+    /**
+     * Sorts the records by the given columns, each with its own TableSorter option
+     */
+    public default Table sort(String[] columnNameList, int[] optionList) {
+        return new TableSorter(columnNameList, optionList).sort(this);
+    }
+
+    /**
+     * Groups the records by the given columns, for computing aggregates
+     */
+    public default GroupBy groupBy(String[] keyColumnList) {
+        return new GroupBy(this, keyColumnList);
+    }
+
+    /**
+     * Joins this table with another on columns with the same names
+     *
+     * @param type TableJoin.INNER, TableJoin.LEFT or TableJoin.SEMI
+     * @return a new table
+     */
+    public default Table join(Table other, String[] columnList, int type) {
+        return new TableJoin(columnList, type).join(this, other);
+    }
+
+    /**
+     * Returns a new table with only the first record of each combination of
+     * values in the given columns, or in all columns if none are given
+     */
+    public default Table distinct(String[] columnList) {
+        return DistinctFilter.distinct(this, columnList, false);
+    }
+
+    /**
+     * Returns a copy of the table that cannot be changed and can be read by many
+     * threads without locking
+     */
+    public default FrozenTable freeze() {
+        return new FrozenTable(this);
+    }
+
+    /**
+     * Returns a new cursor over the records, with a position of its own
+     */
+    public default Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    /**
+     * Returns a new cursor that only stops at records accepted by the filter
+     */
+    public default Cursor cursor(Predicate<? super Row> filter) {
+        return new Cursor(this, filter);
+    }
 }
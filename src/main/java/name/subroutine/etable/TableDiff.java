@@ -0,0 +1,310 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Finds the records that were inserted, deleted and changed between two
+ * versions of a table.
+ *
+ * Records are matched by the values of one or more key columns. When several
+ * records have the same key, the first one with that key in the old table is
+ * matched with the first one in the new table, the second with the second, and
+ * so on.
+ *
+ * Every record is reduced to a 64-bit hash of all its values, in parallel.
+ * Matched records whose hashes differ have surely changed; those whose hashes
+ * are equal are still compared value by value, unless setTrustHash(true) says
+ * to take them as unchanged, which skips a pass over the data at the risk of
+ * missing an update whose hash happens to collide. Columns are compared by
+ * name, so the two tables may have their columns in different orders; a column
+ * that only one of them has reads as empty in the other.
+ */
+public class TableDiff {
+    /**
+     * Records are hashed in chunks of this many
+     */
+    static final int CHUNK = 4096;
+
+    String[] keyColumnList;
+
+    boolean trustHash;
+
+    /**
+     * Creates a diff that matches records by the given key columns
+     */
+    public TableDiff(String[] keyColumnList) {
+        if (keyColumnList.length == 0) {
+            throw new IllegalArgumentException("need at least one key column");
+        }
+        this.keyColumnList = keyColumnList.clone();
+    }
+
+    /**
+     * Whether matched records with equal hashes are taken as unchanged without
+     * comparing their values. Off by default.
+     */
+    public void setTrustHash(boolean trustHash) {
+        this.trustHash = trustHash;
+    }
+
+    public boolean isTrustHash() {
+        return trustHash;
+    }
+
+    /**
+     * Compares an old version of a table with a new one
+     */
+    public ChangeSet diff(Table before, Table after) {
+        int[] beforeKeyIdx = resolveKey(before);
+        int[] afterKeyIdx = resolveKey(after);
+
+        /*
+         * every column name of either table, those of the new one first
+         */
+        List<String> nameList = new ArrayList<>();
+        for (int i = 0; i < after.getColumnCount(); i++) {
+            addName(nameList, after.getColumn(i).getName());
+        }
+        for (int i = 0; i < before.getColumnCount(); i++) {
+            addName(nameList, before.getColumn(i).getName());
+        }
+        String[] names = nameList.toArray(new String[nameList.size()]);
+        int[] beforeIdx = indexOf(before, names);
+        int[] afterIdx = indexOf(after, names);
+
+        RowKey[] beforeKey = new RowKey[before.getRowCount()];
+        long[] beforeHash = new long[beforeKey.length];
+        hashAll(before, beforeKeyIdx, beforeIdx, beforeKey, beforeHash);
+
+        RowKey[] afterKey = new RowKey[after.getRowCount()];
+        long[] afterHash = new long[afterKey.length];
+        hashAll(after, afterKeyIdx, afterIdx, afterKey, afterHash);
+
+        /*
+         * Old records with the same key are chained through next[], in ascending
+         * order; head always points at the first one not matched yet.
+         */
+        Map<RowKey, Integer> head = new HashMap<>();
+        int[] next = new int[beforeKey.length];
+        for (int i = beforeKey.length - 1; i >= 0; i--) {
+            Integer prev = head.put(beforeKey[i], i);
+            next[i] = prev == null ? -1 : prev;
+        }
+
+        ChangeSet changeSet = new ChangeSet();
+        boolean[] matched = new boolean[beforeKey.length];
+        for (int i = 0; i < afterKey.length; i++) {
+            Integer match = head.get(afterKey[i]);
+            if (match == null) {
+                changeSet.insertedList.add(after.get(i));
+                continue;
+            }
+            int j = match;
+            matched[j] = true;
+            if (next[j] < 0) {
+                head.remove(afterKey[i]);
+            } else {
+                head.put(afterKey[i], next[j]);
+            }
+            if (trustHash && beforeHash[j] == afterHash[i]) {
+                continue;
+            }
+            Row oldRow = before.get(j);
+            Row newRow = after.get(i);
+            List<String> changedList = null;
+            for (int c = 0; c < names.length; c++) {
+                if (!RowFingerprint.sameChars(AbstractTable.cell(oldRow, beforeIdx[c]),
+                        AbstractTable.cell(newRow, afterIdx[c]))) {
+                    if (changedList == null) {
+                        changedList = new ArrayList<>();
+                    }
+                    changedList.add(names[c]);
+                }
+            }
+            if (changedList != null) {
+                changeSet.updatedList.add(new Change(oldRow, newRow, changedList));
+            }
+        }
+        for (int j = 0; j < matched.length; j++) {
+            if (!matched[j]) {
+                changeSet.deletedList.add(before.get(j));
+            }
+        }
+        return changeSet;
+    }
+
+    /**
+     * Finds columns in a table, -1 for those it does not have
+     */
+    static int[] indexOf(Table table, String[] columnList) {
+        int[] idx = new int[columnList.length];
+        for (int i = 0; i < columnList.length; i++) {
+            idx[i] = table.getColumn(columnList[i]);
+        }
+        return idx;
+    }
+
+    int[] resolveKey(Table table) {
+        int[] idx = indexOf(table, keyColumnList);
+        for (int i = 0; i < idx.length; i++) {
+            if (idx[i] < 0) {
+                throw new IllegalArgumentException("no key column " + keyColumnList[i]);
+            }
+        }
+        return idx;
+    }
+
+    static void addName(List<String> nameList, String name) {
+        for (String other : nameList) {
+            if (other.equalsIgnoreCase(name)) {
+                return;
+            }
+        }
+        nameList.add(name);
+    }
+
+    /**
+     * Fills in the key and the hash of every record of a table, in parallel
+     */
+    void hashAll(Table table, int[] keyIdx, int[] columnIdx, RowKey[] key, long[] hash) {
+        int count = key.length;
+        IntStream.range(0, (count + CHUNK - 1) / CHUNK).parallel().forEach(chunk -> {
+            int end = Math.min(count, (chunk + 1) * CHUNK);
+            for (int i = chunk * CHUNK; i < end; i++) {
+                Row row = table.get(i);
+                key[i] = RowKey.of(row, keyIdx);
+                hash[i] = hash(row, columnIdx);
+            }
+        });
+    }
+
+    /**
+     * Hashes the given columns of a record, in order. A missing column hashes
+     * the same as an empty one.
+     */
+    long hash(Row row, int[] columnIdx) {
+        long h = 0;
+        for (int c = 0; c < columnIdx.length; c++) {
+            CharSequence value = AbstractTable.cell(row, columnIdx[c]);
+            long v;
+            if (value instanceof StringBuffer) {
+                synchronized (value) {
+                    v = hashChars(value);
+                }
+            } else {
+                v = hashChars(value);
+            }
+
+            /*
+             * mixed in with the position of the column so that moving a value to
+             * another column changes the hash
+             */
+            h = (h ^ v) * 0x9E3779B97F4A7C15L + c;
+        }
+        return mix(h);
+    }
+
+    /**
+     * FNV-1a over the chars of a value, read in place
+     */
+    static long hashChars(CharSequence value) {
+        long v = 0xCBF29CE484222325L;
+        int len = value.length();
+        for (int i = 0; i < len; i++) {
+            v = (v ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return v;
+    }
+
+    /**
+     * The final mix of MurmurHash3, which spreads every bit over the whole hash
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * The differences between two versions of a table
+     */
+    public static class ChangeSet {
+        final List<Row> insertedList = new ArrayList<>();
+        final List<Row> deletedList = new ArrayList<>();
+        final List<Change> updatedList = new ArrayList<>();
+
+        /**
+         * Returns the records of the new table that have no match in the old one,
+         * in the order of the new table
+         */
+        public List<Row> getInsertedList() {
+            return insertedList;
+        }
+
+        /**
+         * Returns the records of the old table that have no match in the new one,
+         * in the order of the old table
+         */
+        public List<Row> getDeletedList() {
+            return deletedList;
+        }
+
+        /**
+         * Returns the matched records whose values changed, in the order of the
+         * new table
+         */
+        public List<Change> getUpdatedList() {
+            return updatedList;
+        }
+
+        /**
+         * Returns true if the two tables have the same records
+         */
+        public boolean isEmpty() {
+            return insertedList.isEmpty() && deletedList.isEmpty() && updatedList.isEmpty();
+        }
+
+        public String toString() {
+            return insertedList.size() + " inserted, " + deletedList.size() + " deleted, "
+                + updatedList.size() + " updated";
+        }
+    }
+
+    /**
+     * A record that is in both versions of a table, with different values
+     */
+    public static class Change {
+        final Row before;
+        final Row after;
+        final List<String> columnList;
+
+        Change(Row before, Row after, List<String> columnList) {
+            this.before = before;
+            this.after = after;
+            this.columnList = Collections.unmodifiableList(columnList);
+        }
+
+        public Row getBefore() {
+            return before;
+        }
+
+        public Row getAfter() {
+            return after;
+        }
+
+        /**
+         * Returns the names of the columns whose values changed
+         */
+        public List<String> getColumnList() {
+            return columnList;
+        }
+
+        public String toString() {
+            return after + " " + columnList;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package name.subroutine.etable;
+
+import java.util.*;
+
+/**
+ * An estimate of the memory a table holds.
+ *
+ * The estimate follows the layout of a 64-bit JVM with compressed references:
+ * 12-byte object headers, 4-byte references and sizes rounded up to 8 bytes.
+ * Strings and StringBuffers take one byte per char when all their chars fit in
+ * Latin-1, from Java 9 on, and two bytes otherwise; the chunks of an ArenaTable
+ * always take two. Column definitions and other objects that records share are
+ * not counted.
+ *
+ * Besides the total, the report gives the bytes, average cell length and share
+ * of duplicate values of each column, the number of objects by kind, and the
+ * bytes allocated but not used by StringBuffers and Vectors. A table with much
+ * wasted capacity or many duplicates is a good candidate for freezing.
+ *
+ * Only a sample of the records is looked at, spread evenly over the table, and
+ * the counts are scaled up to the whole table, so that a report is cheap enough
+ * to take periodically. The duplicate ratios are those within the sample, which
+ * understates them for large tables.
+ */
+public class TableFootprint {
+    /**
+     * Default number of records looked at
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 10000;
+
+    static final int HEADER = 12;
+    static final int REFERENCE = 4;
+    static final int ARRAY_HEADER = 16;
+
+    /**
+     * Shallow sizes of the objects of a table
+     */
+    static final int ROW_BYTES = align(HEADER + 3 * REFERENCE);
+    static final int ARENA_ROW_BYTES = align(HEADER + 5 * REFERENCE + 4);
+    static final int FROZEN_ROW_BYTES = align(HEADER + 2 * REFERENCE + 4);
+    static final int VECTOR_BYTES = align(HEADER + 3 * 4 + REFERENCE);
+    static final int STRING_BUFFER_BYTES = align(HEADER + REFERENCE + 1 + 4 + REFERENCE);
+    static final int STRING_BYTES = align(HEADER + REFERENCE + 4 + 1 + 1);
+
+    /**
+     * Strings are stored one byte per char when they can be, from Java 9 on
+     */
+    static final boolean COMPACT_STRINGS = !System.getProperty("java.specification.version", "").startsWith("1.");
+
+    long rowCount;
+    int sampleCount;
+    long totalBytes;
+    long wastedBytes;
+    long rowObjectCount;
+    long vectorCount;
+    long stringBufferCount;
+    long stringCount;
+    long cellCount;
+    long cellLength;
+    List<ColumnFootprint> columnList = new ArrayList<>();
+
+    TableFootprint() {
+    }
+
+    static int align(long size) {
+        return (int) ((size + 7) & ~7L);
+    }
+
+    static long array(long length, int elementBytes) {
+        return align(ARRAY_HEADER + length * elementBytes);
+    }
+
+    /**
+     * Estimates the memory of a table from a sample of its records
+     */
+    public static TableFootprint of(Table table) {
+        return of(table, DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Estimates the memory of a table from about sampleSize records, or from
+     * every record if sampleSize is 0
+     */
+    public static TableFootprint of(Table table, int sampleSize) {
+        TableFootprint footprint = new TableFootprint();
+        int rowCount = table.getRowCount();
+        int step = sampleSize <= 0 || rowCount <= sampleSize ? 1 : rowCount / sampleSize;
+
+        int columnCount = table.getColumnCount();
+        RowFingerprint.FingerprintSet[] distinct = new RowFingerprint.FingerprintSet[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            footprint.columnList.add(new ColumnFootprint(table.getColumn(c).getName()));
+            distinct[c] = new RowFingerprint.FingerprintSet();
+        }
+
+        /*
+         * the sizes below are for the sample; they are scaled up at the end
+         */
+        long[] fingerprint = new long[2];
+        int[] single = new int[1];
+        for (int i = 0; i < rowCount; i += step) {
+            Row row = table.get(i);
+            footprint.sampleCount++;
+            footprint.measure(row);
+            int size = Math.min(row.getSize(), columnCount);
+            for (int c = 0; c < size; c++) {
+                single[0] = c;
+                RowFingerprint.of(row, single, fingerprint);
+                distinct[c].add(fingerprint[0], fingerprint[1], 0, null);
+            }
+        }
+
+        double scale = footprint.sampleCount == 0 ? 0 : (double) rowCount / footprint.sampleCount;
+        footprint.rowCount = rowCount;
+        footprint.totalBytes = Math.round(footprint.totalBytes * scale);
+        footprint.wastedBytes = Math.round(footprint.wastedBytes * scale);
+        footprint.rowObjectCount = Math.round(footprint.rowObjectCount * scale);
+        footprint.vectorCount = Math.round(footprint.vectorCount * scale);
+        footprint.stringBufferCount = Math.round(footprint.stringBufferCount * scale);
+        footprint.stringCount = Math.round(footprint.stringCount * scale);
+        for (int c = 0; c < columnCount; c++) {
+            ColumnFootprint column = footprint.columnList.get(c);
+            column.distinctCount = distinct[c].size();
+            column.bytes = Math.round(column.bytes * scale);
+        }
+
+        /*
+         * the list of records itself
+         */
+        if (table instanceof Etable) {
+            Vector<Row> recordList = ((Etable) table)._record_lst;
+            footprint.vectorCount++;
+            footprint.totalBytes += VECTOR_BYTES + array(recordList.capacity(), REFERENCE);
+            footprint.wastedBytes += (long) (recordList.capacity() - recordList.size()) * REFERENCE;
+        } else if (table instanceof ArenaTable) {
+            CharArena arena = ((ArenaTable) table).arena;
+            Vector<Row> rowList = ((ArenaTable) table).rowList;
+            footprint.vectorCount++;
+            footprint.totalBytes += VECTOR_BYTES + array(rowList.capacity(), REFERENCE);
+            footprint.wastedBytes += (long) (rowList.capacity() - rowList.size()) * REFERENCE;
+            footprint.totalBytes += array(arena.chunks.length, REFERENCE) + arena.getCapacity() * 2
+                + arena.chunkCount * ARRAY_HEADER;
+            footprint.wastedBytes += (arena.getCapacity() - arena.getLive()) * 2;
+        } else if (table instanceof FrozenTable) {
+            FrozenTable frozen = (FrozenTable) table;
+            footprint.totalBytes += array(frozen.cells.length, REFERENCE) + array(frozen.rowStart.length, 4)
+                + array(frozen.rows.length, REFERENCE);
+        }
+        return footprint;
+    }
+
+    /**
+     * Adds the objects of one record
+     */
+    void measure(Row row) {
+        rowObjectCount++;
+        if (row instanceof ArenaRow) {
+            /*
+             * the chars are counted with the arena
+             */
+            ArenaRow arenaRow = (ArenaRow) row;
+            totalBytes += ARENA_ROW_BYTES + array(arenaRow.span.length, 4);
+            wastedBytes += (long) (arenaRow.span.length - arenaRow.size * 2) * 4;
+            for (int c = 0; c < arenaRow.size; c++) {
+                addArenaCell(c, arenaRow.span[c * 2 + 1]);
+            }
+            return;
+        }
+        if (row instanceof FrozenRow) {
+            totalBytes += FROZEN_ROW_BYTES;
+        } else {
+            totalBytes += ROW_BYTES;
+        }
+        if (row instanceof AbstractRow) {
+            Vector<StringBuffer> valueList = ((AbstractRow) row).valueList;
+            vectorCount++;
+            totalBytes += VECTOR_BYTES + array(valueList.capacity(), REFERENCE);
+            wastedBytes += (long) (valueList.capacity() - valueList.size()) * REFERENCE;
+        }
+        int size = row.getSize();
+        for (int c = 0; c < size; c++) {
+            addCell(c, row.get(c));
+        }
+    }
+
+    void addCell(int column, Object value) {
+        long bytes;
+        int length;
+        if (value instanceof StringBuffer) {
+            StringBuffer buf = (StringBuffer) value;
+            int capacity;
+            int charBytes;
+            synchronized (buf) {
+                length = buf.length();
+                capacity = buf.capacity();
+                charBytes = charBytes(buf, length);
+            }
+            stringBufferCount++;
+            bytes = STRING_BUFFER_BYTES + array(capacity, charBytes);
+            wastedBytes += (long) (capacity - length) * charBytes;
+        } else if (value != null) {
+            CharSequence str = value instanceof CharSequence ? (CharSequence) value : value.toString();
+            length = str.length();
+            stringCount++;
+            bytes = STRING_BYTES + array(length, charBytes(str, length));
+        } else {
+            return;
+        }
+        totalBytes += bytes;
+        cellCount++;
+        cellLength += length;
+        if (column < columnList.size()) {
+            ColumnFootprint footprint = columnList.get(column);
+            footprint.bytes += bytes;
+            footprint.cellCount++;
+            footprint.cellLength += length;
+        }
+    }
+
+    void addArenaCell(int column, int length) {
+        cellCount++;
+        cellLength += length;
+        if (column < columnList.size()) {
+            ColumnFootprint footprint = columnList.get(column);
+            footprint.bytes += length * 2L;
+            footprint.cellCount++;
+            footprint.cellLength += length;
+        }
+    }
+
+    static int charBytes(CharSequence str, int length) {
+        if (!COMPACT_STRINGS) {
+            return 2;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) > 0xFF) {
+                return 2;
+            }
+        }
+        return 1;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of records the estimate was made from
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Returns the estimated bytes held by the records and their values
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Returns the bytes allocated by StringBuffers and Vectors beyond what they
+     * hold
+     */
+    public long getWastedBytes() {
+        return wastedBytes;
+    }
+
+    public long getRowObjectCount() {
+        return rowObjectCount;
+    }
+
+    public long getVectorCount() {
+        return vectorCount;
+    }
+
+    public long getStringBufferCount() {
+        return stringBufferCount;
+    }
+
+    public long getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Returns the average number of chars in a value
+     */
+    public double getAverageCellLength() {
+        return cellCount == 0 ? 0 : (double) cellLength / cellCount;
+    }
+
+    /**
+     * Returns the share of the values in the sample that repeat a value earlier
+     * in their column, over all columns
+     */
+    public double getDuplicateRatio() {
+        long count = 0;
+        long distinct = 0;
+        for (ColumnFootprint column : columnList) {
+            count += column.cellCount;
+            distinct += column.distinctCount;
+        }
+        return count == 0 ? 0 : 1 - (double) distinct / count;
+    }
+
+    public List<ColumnFootprint> getColumnList() {
+        return Collections.unmodifiableList(columnList);
+    }
+
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(String.format("%d records (%d sampled): %d bytes, %d wasted%n",
+            rowCount, sampleCount, totalBytes, wastedBytes));
+        buf.append(String.format("%d records, %d vectors, %d string buffers, %d strings%n",
+            rowObjectCount, vectorCount, stringBufferCount, stringCount));
+        for (ColumnFootprint column : columnList) {
+            buf.append(column).append(String.format("%n"));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * The part of the footprint in one column
+     */
+    public static class ColumnFootprint {
+        final String name;
+        long bytes;
+        int cellCount;
+        long cellLength;
+        int distinctCount;
+
+        ColumnFootprint(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the estimated bytes of the values in the column
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public double getAverageCellLength() {
+            return cellCount == 0 ? 0 : (double) cellLength / cellCount;
+        }
+
+        /**
+         * Returns the share of the values in the sample that repeat a value
+         * earlier in the column
+         */
+        public double getDuplicateRatio() {
+            return cellCount == 0 ? 0 : 1 - (double) distinctCount / cellCount;
+        }
+
+        public String toString() {
+            return String.format("%s: %d bytes, %.1f chars, %.0f%% duplicates", name, bytes,
+                getAverageCellLength(), getDuplicateRatio() * 100);
+        }
+    }
+}
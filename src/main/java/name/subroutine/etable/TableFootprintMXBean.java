@@ -0,0 +1,45 @@
+package name.subroutine.etable;
+
+/**
+ * The footprint of a table as seen by JMX clients such as JConsole. The
+ * per-column arrays are in the order of getColumnNames().
+ */
+public interface TableFootprintMXBean {
+    long getRowCount();
+
+    int getSampleCount();
+
+    long getTotalBytes();
+
+    long getWastedBytes();
+
+    long getRowObjectCount();
+
+    long getVectorCount();
+
+    long getStringBufferCount();
+
+    long getStringCount();
+
+    double getAverageCellLength();
+
+    double getDuplicateRatio();
+
+    String[] getColumnNames();
+
+    long[] getColumnBytes();
+
+    double[] getColumnAverageCellLengths();
+
+    double[] getColumnDuplicateRatios();
+
+    /**
+     * Returns the time of the footprint, in milliseconds since the epoch
+     */
+    long getTimestamp();
+
+    /**
+     * Takes the footprint again on the next read, however recent the last one
+     */
+    void refresh();
+}
@@ -0,0 +1,292 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Joins two tables on the values of one or more columns.
+ *
+ * A hash table is built from the smaller of the two tables and the records of the
+ * larger table are looked up in it, in parallel. Whichever side is hashed, the
+ * result lists the records in the order of the left table, and for each left
+ * record, its matches in the order of the right table.
+ *
+ * The result has the columns of the left table followed by the columns of the
+ * right table, without the right join columns since they repeat the left ones.
+ * A right column whose name is already taken gets a suffix, e.g. "HP_2".
+ * Empty values are ordinary values and match each other.
+ */
+public class TableJoin {
+    /**
+     * Only records that have a match on both sides
+     */
+    public static final int INNER = 300;
+
+    /**
+     * Every record of the left table, with empty values when there is no match
+     */
+    public static final int LEFT = 301;
+
+    /**
+     * Records of the left table that have at least one match, each listed once
+     * and with the left columns only
+     */
+    public static final int SEMI = 302;
+
+    /**
+     * The probe side is split into chunks of this many records
+     */
+    static final int CHUNK = 4096;
+
+    /**
+     * Marks a left record without a match in the list of index pairs
+     */
+    static final long NO_MATCH = 0xFFFFFFFFL;
+
+    String[] leftColumnList;
+    String[] rightColumnList;
+    int type;
+
+    /**
+     * Creates a join on columns with the same names on both sides
+     */
+    public TableJoin(String[] columnList, int type) {
+        this(columnList, columnList, type);
+    }
+
+    /**
+     * Creates a join of leftColumnList[i] with rightColumnList[i]
+     */
+    public TableJoin(String[] leftColumnList, String[] rightColumnList, int type) {
+        if (leftColumnList.length != rightColumnList.length) {
+            throw new IllegalArgumentException("need the same number of columns on both sides");
+        }
+        if (type < INNER || type > SEMI) {
+            throw new IllegalArgumentException("unknown join type " + type);
+        }
+        this.leftColumnList = leftColumnList.clone();
+        this.rightColumnList = rightColumnList.clone();
+        this.type = type;
+    }
+
+    /**
+     * Joins the two tables
+     *
+     * @return a new table
+     */
+    public Table join(Table left, Table right) {
+        int[] leftIdx = resolve(left, leftColumnList);
+        int[] rightIdx = resolve(right, rightColumnList);
+
+        long[] pairList;
+        if (right.getRowCount() <= left.getRowCount()) {
+            pairList = probe(left, leftIdx, right, rightIdx, true);
+        } else {
+            pairList = probe(right, rightIdx, left, leftIdx, false);
+        }
+        Arrays.parallelSort(pairList);
+
+        return build(left, right, rightIdx, pairList);
+    }
+
+    /**
+     * Finds the join columns in a table
+     *
+     * @throws IllegalArgumentException if a column is not in the table
+     */
+    static int[] resolve(Table table, String[] columnList) {
+        int[] idx = new int[columnList.length];
+        for (int i = 0; i < columnList.length; i++) {
+            idx[i] = table.getColumn(columnList[i]);
+            if (idx[i] < 0) {
+                throw new IllegalArgumentException("no column " + columnList[i]);
+            }
+        }
+        return idx;
+    }
+
+    /**
+     * Hashes the build table and looks up every record of the probe table
+     *
+     * @param probeIsLeft true if the probe table is the left table
+     * @return pairs of (left index, right index), packed into longs so that they
+     *         sort in left, then right order
+     */
+    long[] probe(Table probe, int[] probeIdx, Table build, int[] buildIdx, boolean probeIsLeft) {
+        /*
+         * Records with the same key are chained through next[]. Going backwards makes
+         * each chain run in ascending order.
+         */
+        int buildCount = build.getRowCount();
+        Map<RowKey, Integer> head = new HashMap<>();
+        int[] next = new int[buildCount];
+        for (int i = buildCount - 1; i >= 0; i--) {
+            Integer prev = head.put(RowKey.of(build.get(i), buildIdx), i);
+            next[i] = prev == null ? -1 : prev;
+        }
+
+        int probeCount = probe.getRowCount();
+        int chunkCount = (probeCount + CHUNK - 1) / CHUNK;
+        List<long[]> chunkList = IntStream.range(0, chunkCount).parallel()
+            .mapToObj(chunk -> {
+                LongList pairList = new LongList();
+                int end = Math.min(probeCount, (chunk + 1) * CHUNK);
+                for (int i = chunk * CHUNK; i < end; i++) {
+                    Integer match = head.get(RowKey.of(probe.get(i), probeIdx));
+                    if (!probeIsLeft) {
+                        for (int j = match == null ? -1 : match; j >= 0; j = next[j]) {
+                            pairList.add(pair(j, i));
+                        }
+                        continue;
+                    }
+                    if (match == null) {
+                        if (type == LEFT) {
+                            pairList.add(pair(i, -1));
+                        }
+                        continue;
+                    }
+                    if (type == SEMI) {
+                        pairList.add(pair(i, -1));
+                        continue;
+                    }
+                    for (int j = match; j >= 0; j = next[j]) {
+                        pairList.add(pair(i, j));
+                    }
+                }
+                return pairList.toArray();
+            })
+            .collect(Collectors.toList());
+
+        LongList pairList = new LongList();
+        for (long[] chunk : chunkList) {
+            pairList.addAll(chunk);
+        }
+
+        if (!probeIsLeft && type != INNER) {
+            /*
+             * The left table was hashed, so the unmatched left records and the
+             * duplicates of semi joins have to be worked out from the pairs
+             */
+            boolean[] matched = new boolean[buildCount];
+            long[] all = pairList.toArray();
+            for (long pair : all) {
+                matched[(int) (pair >>> 32)] = true;
+            }
+            pairList = new LongList();
+            for (int i = 0; i < buildCount; i++) {
+                if (type == SEMI ? matched[i] : !matched[i]) {
+                    pairList.add(pair(i, -1));
+                }
+            }
+            if (type == LEFT) {
+                pairList.addAll(all);
+            }
+        }
+        return pairList.toArray();
+    }
+
+    static long pair(int left, int right) {
+        return ((long) left << 32) | (right & NO_MATCH);
+    }
+
+    /**
+     * Creates the result table from the sorted index pairs
+     */
+    Table build(Table left, Table right, int[] rightIdx, long[] pairList) {
+        Etable result = new Etable();
+        List<String> nameList = new ArrayList<>();
+        for (int i = 0; i < left.getColumnCount(); i++) {
+            nameList.add(left.getColumn(i).getName());
+        }
+
+        List<Integer> rightValueIdx = new ArrayList<>();
+        if (type != SEMI) {
+            for (int i = 0; i < right.getColumnCount(); i++) {
+                if (contains(rightIdx, i)) {
+                    continue;
+                }
+                rightValueIdx.add(i);
+                nameList.add(uniqueName(nameList, right.getColumn(i).getName()));
+            }
+        }
+        for (String name : nameList) {
+            result.pushColumn(name);
+        }
+
+        int leftCount = left.getColumnCount();
+        for (long pair : pairList) {
+            int i = (int) (pair >>> 32);
+            int j = (int) pair;
+            String[] valueList = new String[nameList.size()];
+            Row leftRow = left.get(i);
+            for (int k = 0; k < leftCount; k++) {
+                valueList[k] = AbstractTable.cell(leftRow, k).toString();
+            }
+            Row rightRow = j < 0 ? null : right.get(j);
+            for (int k = 0; k < rightValueIdx.size(); k++) {
+                valueList[leftCount + k] = rightRow == null
+                    ? ""
+                    : AbstractTable.cell(rightRow, rightValueIdx.get(k)).toString();
+            }
+            result.push(valueList);
+        }
+        return result;
+    }
+
+    static boolean contains(int[] list, int value) {
+        for (int v : list) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a numbered suffix to a column name until it does not clash with the
+     * names taken so far. Column names are not case sensitive.
+     */
+    static String uniqueName(List<String> nameList, String name) {
+        String candidate = name;
+        for (int suffix = 2; containsIgnoreCase(nameList, candidate); suffix++) {
+            candidate = name + "_" + suffix;
+        }
+        return candidate;
+    }
+
+    static boolean containsIgnoreCase(List<String> nameList, String name) {
+        for (String n : nameList) {
+            if (n.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A growable list of longs, to avoid boxing the index pairs
+     */
+    static class LongList {
+        long[] list = new long[16];
+        int size;
+
+        void add(long value) {
+            if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+            }
+            list[size++] = value;
+        }
+
+        void addAll(long[] values) {
+            if (size + values.length > list.length) {
+                list = Arrays.copyOf(list, Math.max(size + values.length, size * 2));
+            }
+            System.arraycopy(values, 0, list, size, values.length);
+            size += values.length;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(list, size);
+        }
+    }
+}
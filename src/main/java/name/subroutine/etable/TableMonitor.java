@@ -0,0 +1,183 @@
+package name.subroutine.etable;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.function.*;
+import javax.management.*;
+
+/**
+ * Publishes the footprint of a table over JMX.
+ *
+ * The table is got from a supplier each time, so a monitor can follow a table
+ * that is replaced, e.g.
+ *
+ * <pre>
+ * ReloadableTable table = new ReloadableTable(file, charset);
+ * new TableMonitor(table::get).register("prices");
+ * </pre>
+ *
+ * A footprint is taken on the first read and reused for the refresh interval, 10
+ * seconds by default, so that a client reading every attribute does not sample
+ * the table once for each.
+ */
+public class TableMonitor implements TableFootprintMXBean {
+    /**
+     * Default time a footprint is reused, in milliseconds
+     */
+    public static final long DEFAULT_INTERVAL = 10000;
+
+    /**
+     * Domain of the registered names
+     */
+    public static final String DOMAIN = "name.subroutine.etable";
+
+    final Supplier<? extends Table> supplier;
+    final int sampleSize;
+    volatile long interval = DEFAULT_INTERVAL;
+
+    TableFootprint footprint;
+    long timestamp;
+
+    ObjectName objectName;
+
+    public TableMonitor(Supplier<? extends Table> supplier) {
+        this(supplier, TableFootprint.DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * @param sampleSize number of records sampled for each footprint, 0 for all
+     */
+    public TableMonitor(Supplier<? extends Table> supplier, int sampleSize) {
+        this.supplier = supplier;
+        this.sampleSize = sampleSize;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Sets the time a footprint is reused, in milliseconds
+     */
+    public void setInterval(long millis) {
+        this.interval = millis;
+    }
+
+    /**
+     * Returns the footprint, taking it again if it is older than the interval
+     */
+    public synchronized TableFootprint getFootprint() {
+        long now = System.currentTimeMillis();
+        if (footprint == null || now - timestamp >= interval) {
+            footprint = TableFootprint.of(supplier.get(), sampleSize);
+            timestamp = now;
+        }
+        return footprint;
+    }
+
+    public synchronized void refresh() {
+        footprint = null;
+    }
+
+    public synchronized long getTimestamp() {
+        getFootprint();
+        return timestamp;
+    }
+
+    /**
+     * Registers the monitor with the platform MBean server under
+     * name.subroutine.etable:type=TableFootprint,name=<i>name</i>
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(DOMAIN + ":type=TableFootprint,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.objectName = objectName;
+        return objectName;
+    }
+
+    /**
+     * Removes the monitor from the platform MBean server
+     */
+    public synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    public long getRowCount() {
+        return getFootprint().getRowCount();
+    }
+
+    public int getSampleCount() {
+        return getFootprint().getSampleCount();
+    }
+
+    public long getTotalBytes() {
+        return getFootprint().getTotalBytes();
+    }
+
+    public long getWastedBytes() {
+        return getFootprint().getWastedBytes();
+    }
+
+    public long getRowObjectCount() {
+        return getFootprint().getRowObjectCount();
+    }
+
+    public long getVectorCount() {
+        return getFootprint().getVectorCount();
+    }
+
+    public long getStringBufferCount() {
+        return getFootprint().getStringBufferCount();
+    }
+
+    public long getStringCount() {
+        return getFootprint().getStringCount();
+    }
+
+    public double getAverageCellLength() {
+        return getFootprint().getAverageCellLength();
+    }
+
+    public double getDuplicateRatio() {
+        return getFootprint().getDuplicateRatio();
+    }
+
+    public String[] getColumnNames() {
+        List<TableFootprint.ColumnFootprint> columnList = getFootprint().getColumnList();
+        String[] result = new String[columnList.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = columnList.get(i).getName();
+        }
+        return result;
+    }
+
+    public long[] getColumnBytes() {
+        List<TableFootprint.ColumnFootprint> columnList = getFootprint().getColumnList();
+        long[] result = new long[columnList.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = columnList.get(i).getBytes();
+        }
+        return result;
+    }
+
+    public double[] getColumnAverageCellLengths() {
+        List<TableFootprint.ColumnFootprint> columnList = getFootprint().getColumnList();
+        double[] result = new double[columnList.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = columnList.get(i).getAverageCellLength();
+        }
+        return result;
+    }
+
+    public double[] getColumnDuplicateRatios() {
+        List<TableFootprint.ColumnFootprint> columnList = getFootprint().getColumnList();
+        double[] result = new double[columnList.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = columnList.get(i).getDuplicateRatio();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,432 @@
+package name.subroutine.etable;
+
+import java.util.*;
+import java.io.*;
+
+/**
+ * Sorts the records of a table by one or more columns.
+ *
+ * The sort keys are pulled out of each record once, before sorting, so the
+ * comparator never has to look up a column by name or convert a StringBuffer to a
+ * String. Small tables are sorted in memory with a parallel, stable sort. Tables
+ * whose sort keys would take more than the memory limit are sorted in runs that
+ * are written to temporary files and merged back into the table.
+ */
+public class TableSorter {
+    /**
+     * Compares values as strings
+     */
+    public static final int NATURAL = 0;
+
+    /**
+     * Compares values as numbers. Values that are not numbers are placed after all
+     * the numbers, even with DESCENDING.
+     */
+    public static final int NUMERIC = 1;
+
+    /**
+     * Compares values as strings, ignoring case
+     */
+    public static final int CASE_INSENSITIVE = 2;
+
+    /**
+     * Reverses the order, may be combined with the other options
+     */
+    public static final int DESCENDING = 4;
+
+    /**
+     * Rough cost of a sort entry, its key arrays and object headers, in bytes
+     */
+    static final int ENTRY_OVERHEAD = 64;
+
+    /**
+     * Rough cost of a text key, not counting its characters, in bytes
+     */
+    static final int TEXT_KEY_OVERHEAD = 48;
+
+    /**
+     * Names of the columns to sort by, most significant first
+     */
+    String[] columnNameList;
+
+    /**
+     * Sort options for each column
+     */
+    int[] optionList;
+
+    /**
+     * Sort keys larger than this many bytes will be sorted externally
+     */
+    long memoryLimit;
+
+    /**
+     * Where to write the temporary run files, or null for the system default
+     */
+    File tempDirectory;
+
+    /**
+     * Creates a sorter that sorts by the given columns, all using the same option
+     */
+    public TableSorter(String[] columnNameList, int option) {
+        this(columnNameList, fill(columnNameList.length, option));
+    }
+
+    /**
+     * Creates a sorter that sorts by the given columns, each with its own option
+     */
+    public TableSorter(String[] columnNameList, int[] optionList) {
+        if (columnNameList.length != optionList.length) {
+            throw new IllegalArgumentException("need one option for each column");
+        }
+        this.columnNameList = columnNameList.clone();
+        this.optionList = optionList.clone();
+        this.memoryLimit = Runtime.getRuntime().maxMemory() / 8;
+    }
+
+    static int[] fill(int length, int option) {
+        int[] list = new int[length];
+        Arrays.fill(list, option);
+        return list;
+    }
+
+    /**
+     * Sets the number of bytes the sort keys may take before the table is sorted
+     * externally
+     */
+    public TableSorter setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        return this;
+    }
+
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Sets the directory for temporary run files
+     */
+    public TableSorter setTempDirectory(File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    public File getTempDirectory() {
+        return tempDirectory;
+    }
+
+    /**
+     * Sorts the records of the table in place
+     *
+     * @return the table
+     * @throws IllegalArgumentException if a sort column is not in the table
+     */
+    public Table sort(Table table) {
+        int[] columnIdx = new int[columnNameList.length];
+        for (int i = 0; i < columnIdx.length; i++) {
+            columnIdx[i] = table.getColumn(columnNameList[i]);
+            if (columnIdx[i] < 0) {
+                throw new IllegalArgumentException("no column " + columnNameList[i]);
+            }
+        }
+
+        int count = table.getRowCount();
+        long size = 0;
+        for (int i = 0; i < count; i++) {
+            size += estimate(table.get(i), columnIdx);
+        }
+
+        try {
+            if (size <= memoryLimit) {
+                sortInMemory(table, columnIdx);
+            } else {
+                sortExternal(table, columnIdx);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return table;
+    }
+
+    /**
+     * Extracts all the keys, sorts them in parallel and puts the records back in
+     * the new order
+     */
+    void sortInMemory(Table table, int[] columnIdx) {
+        int count = table.getRowCount();
+        Entry[] entryList = new Entry[count];
+        for (int i = 0; i < count; i++) {
+            Row row = table.get(i);
+            entryList[i] = createEntry(row, keyList(row, columnIdx));
+        }
+
+        Arrays.parallelSort(entryList, new EntryComparator());
+
+        table.clearRowList();
+        for (int i = 0; i < count; i++) {
+            table.push((Row) entryList[i].payload);
+        }
+    }
+
+    /**
+     * Sorts the table in runs no bigger than the memory limit, writes each run to
+     * a temporary file, and then merges the runs back into the table
+     */
+    void sortExternal(Table table, int[] columnIdx) throws IOException {
+        List<File> runList = new ArrayList<>();
+        try {
+            int count = table.getRowCount();
+            List<Entry> run = new ArrayList<>();
+            long size = 0;
+            for (int i = 0; i < count; i++) {
+                Row row = table.get(i);
+                run.add(createEntry(row, keyList(row, columnIdx)));
+                size += estimate(row, columnIdx);
+                if (size >= memoryLimit) {
+                    runList.add(writeRun(run));
+                    run.clear();
+                    size = 0;
+                }
+            }
+            if (!run.isEmpty()) {
+                runList.add(writeRun(run));
+                run.clear();
+            }
+
+            table.clearRowList();
+            merge(table, runList, columnIdx);
+        } finally {
+            for (File file : runList) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Sorts one run and writes the full records to a temporary file
+     */
+    File writeRun(List<Entry> run) throws IOException {
+        Entry[] entryList = run.toArray(new Entry[run.size()]);
+        Arrays.parallelSort(entryList, new EntryComparator());
+
+        File file = File.createTempFile("etable-sort", ".run", tempDirectory);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (Entry entry : entryList) {
+                Row row = (Row) entry.payload;
+                out.writeInt(row.getSize());
+                for (int i = 0; i < row.getSize(); i++) {
+                    writeValue(out, AbstractTable.cell(row, i));
+                }
+            }
+        }
+        return file;
+    }
+
+    static void writeValue(DataOutputStream out, CharSequence value) throws IOException {
+        int len = value == null ? 0 : value.length();
+        out.writeInt(len);
+        for (int i = 0; i < len; i++) {
+            out.writeChar(value.charAt(i));
+        }
+    }
+
+    /**
+     * Merges the sorted runs with a k-way merge and pushes the records into the
+     * table in order
+     */
+    void merge(Table table, List<File> runList, int[] columnIdx) throws IOException {
+        EntryComparator comparator = new EntryComparator();
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runList.size()),
+            (a, b) -> {
+                int result = comparator.compare(a.entry, b.entry);
+                /*
+                 * equal keys come out in run order, which keeps the sort stable
+                 */
+                return result != 0 ? result : Integer.compare(a.runIdx, b.runIdx);
+            });
+
+        List<RunReader> readerList = new ArrayList<>();
+        try {
+            for (int i = 0; i < runList.size(); i++) {
+                RunReader reader = new RunReader(runList.get(i), i, columnIdx);
+                readerList.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                table.push(table.createRow((String[]) reader.entry.payload));
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readerList) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Guesses how many bytes the sort entry of a record takes
+     */
+    long estimate(Row row, int[] columnIdx) {
+        long size = ENTRY_OVERHEAD;
+        for (int i = 0; i < columnIdx.length; i++) {
+            if ((optionList[i] & NUMERIC) != 0) {
+                size += 8;
+                continue;
+            }
+            CharSequence value = AbstractTable.cell(row, columnIdx[i]);
+            size += TEXT_KEY_OVERHEAD + 2L * value.length();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the values of the sort columns of a record
+     */
+    static CharSequence[] keyList(Row row, int[] columnIdx) {
+        CharSequence[] keyList = new CharSequence[columnIdx.length];
+        for (int i = 0; i < columnIdx.length; i++) {
+            keyList[i] = AbstractTable.cell(row, columnIdx[i]);
+        }
+        return keyList;
+    }
+
+    /**
+     * Returns the values of the sort columns of a record read from a run
+     */
+    static CharSequence[] keyList(String[] valueList, int[] columnIdx) {
+        CharSequence[] keyList = new CharSequence[columnIdx.length];
+        for (int i = 0; i < columnIdx.length; i++) {
+            int idx = columnIdx[i];
+            keyList[i] = idx >= 0 && idx < valueList.length ? valueList[idx] : "";
+        }
+        return keyList;
+    }
+
+    /**
+     * Converts the values of the sort columns into sort keys
+     */
+    Entry createEntry(Object payload, CharSequence[] keyList) {
+        Entry entry = new Entry();
+        entry.payload = payload;
+        entry.text = new String[keyList.length];
+        for (int i = 0; i < keyList.length; i++) {
+            CharSequence value = keyList[i];
+            int option = optionList[i];
+            if ((option & NUMERIC) != 0) {
+                if (entry.number == null) {
+                    entry.number = new double[keyList.length];
+                }
+                entry.number[i] = NumberParser.parseDouble(value);
+            } else if ((option & CASE_INSENSITIVE) != 0) {
+                entry.text[i] = fold(value);
+            } else {
+                entry.text[i] = value.toString();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Folds the case of a string the same way String.CASE_INSENSITIVE_ORDER does,
+     * so that folded strings can be compared with compareTo
+     */
+    static String fold(CharSequence value) {
+        char[] buf = new char[value.length()];
+        for (int i = 0; i < buf.length; i++) {
+            buf[i] = Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+        return new String(buf);
+    }
+
+    /**
+     * A record and its sort keys. Text keys and numeric keys share the same index
+     * as the column they came from.
+     */
+    static class Entry {
+        Object payload;
+        String[] text;
+        double[] number;
+    }
+
+    class EntryComparator implements Comparator<Entry> {
+        public int compare(Entry a, Entry b) {
+            for (int i = 0; i < optionList.length; i++) {
+                int option = optionList[i];
+                int result;
+                if ((option & NUMERIC) != 0) {
+                    double x = a.number[i];
+                    double y = b.number[i];
+                    if (Double.isNaN(x) != Double.isNaN(y)) {
+                        /*
+                         * not numbers go last whichever the direction
+                         */
+                        return Double.isNaN(x) ? 1 : -1;
+                    }
+                    result = Double.compare(x, y);
+                } else {
+                    result = a.text[i].compareTo(b.text[i]);
+                }
+                if (result != 0) {
+                    return (option & DESCENDING) != 0 ? -result : result;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Reads the records of a run file back one at a time
+     */
+    class RunReader implements Closeable {
+        final DataInputStream in;
+        final int runIdx;
+        final int[] columnIdx;
+        Entry entry;
+
+        RunReader(File file, int runIdx, int[] columnIdx) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            this.runIdx = runIdx;
+            this.columnIdx = columnIdx;
+        }
+
+        /**
+         * Reads the next record
+         *
+         * @return false if there are no more records in this run
+         */
+        boolean next() throws IOException {
+            int count;
+            try {
+                count = in.readInt();
+            } catch (EOFException ex) {
+                entry = null;
+                return false;
+            }
+
+            String[] valueList = new String[count];
+            char[] buf = new char[16];
+            for (int i = 0; i < count; i++) {
+                int len = in.readInt();
+                if (buf.length < len) {
+                    buf = new char[len];
+                }
+                for (int j = 0; j < len; j++) {
+                    buf[j] = in.readChar();
+                }
+                valueList[i] = new String(buf, 0, len);
+            }
+            entry = createEntry(valueList, keyList(valueList, columnIdx));
+            return true;
+        }
+
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class ArenaTableTest {
+    private static final String TEXT = "%Name  City\n"
+        + "_First Of\n"
+        + " Sam   Kansas\n"
+        + "_      City\n"
+        + "*Bob   Gone\n"
+        + "_      Really\n"
+        + "# comment\n"
+        + " Ann   Boston\n";
+
+    @Test
+    public void sameAsEtable() {
+        Etable etable = new Etable();
+        etable.pushText(TEXT);
+        ArenaTable arena = new ArenaTable();
+        arena.pushText(TEXT);
+
+        assertThat(arena.getRowCount(), is(etable.getRowCount()));
+        assertThat(arena.getColumn(1).getName(), is("CityOf"));
+        for (int i = 0; i < etable.getRowCount(); i++) {
+            for (int j = 0; j < etable.getColumnCount(); j++) {
+                assertThat(arena.getValue(i, j), is((Object) etable.getValue(i, j).toString()));
+            }
+        }
+        assertThat(arena.get(0).get("cityof"), is((Object) "KansasCity"));
+    }
+
+    @Test
+    public void lineByLine() {
+        ArenaTable arena = new ArenaTable();
+        for (String line : TEXT.split("\n")) {
+            arena.pushLine(line);
+        }
+        assertThat(arena.getRowCount(), is(2));
+        assertThat(arena.get(0).toString(), is("Sam,KansasCity"));
+        assertThat(arena.get(1).toString(), is("Ann,Boston"));
+    }
+
+    @Test
+    public void setAndCompact() {
+        ArenaTable arena = new ArenaTable();
+        arena.pushColumn(new String[] { "Id", "Value" });
+        for (int i = 0; i < 1000; i++) {
+            arena.push(new String[] { Integer.toString(i), "x" });
+        }
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            big.append('y');
+        }
+        for (int n = 0; n < 5; n++) {
+            for (int i = 0; i < 1000; i++) {
+                arena.get(i).set(1, big.toString() + n);
+            }
+        }
+
+        assertThat(arena.getArenaGarbage() <= arena.getArenaCapacity() / 2, is(true));
+        assertThat(arena.get(999).get("Value"), is((Object) (big + "4")));
+
+        arena.compact();
+        assertThat(arena.getArenaGarbage(), is(0L));
+        assertThat(arena.get(0).get(0), is((Object) "0"));
+        assertThat(arena.get(999).get(1), is((Object) (big + "4")));
+    }
+
+    @Test
+    public void deleteColumn() {
+        ArenaTable arena = new ArenaTable();
+        arena.pushText("%A B C\n 1 2 3\n");
+        arena.delete("B");
+        assertThat(arena.get(0).toString(), is("1,3"));
+        assertThat(arena.get(0).get("C"), is((Object) "3"));
+    }
+
+    @Test
+    public void copyAndFreeze() {
+        Etable etable = new Etable();
+        etable.pushText(TEXT);
+        ArenaTable arena = new ArenaTable(etable);
+
+        assertThat(arena.get(0).get("CityOf"), is((Object) "KansasCity"));
+        assertThat(arena.freeze().get(1).get("NameFirst"), is((Object) "Ann"));
+        assertThat(arena.sort(new String[] { "NameFirst" }, 0).get(0).get("NameFirst"), is((Object) "Ann"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getValueListFails() {
+        ArenaTable arena = new ArenaTable();
+        arena.pushText("%A B\n 1 2\n");
+        arena.get(0).getValueList();
+    }
+}
@@ -0,0 +1,117 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CompressedInputTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] sample(int rowCount) {
+        StringBuilder text = new StringBuilder("%Id      Name\n");
+        for (int i = 0; i < rowCount; i++) {
+            text.append(' ').append(String.format("%-8d", i)).append("name").append(i).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] zlib(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buf = new byte[1000];
+        for (int count; (count = in.read(buf)) >= 0;) {
+            bytes.write(buf, 0, count);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void detectCompression() throws IOException {
+        byte[] data = sample(10);
+        byte[] gz = gzip(data);
+        byte[] z = zlib(data);
+
+        assertThat(CompressedInput.detect(gz[0] & 0xff, gz[1] & 0xff), is(CompressedInput.GZIP));
+        assertThat(CompressedInput.detect(z[0] & 0xff, z[1] & 0xff), is(CompressedInput.ZLIB));
+        assertThat(CompressedInput.detect(data[0], data[1]), is(CompressedInput.NONE));
+        assertThat(CompressedInput.detect(-1, -1), is(CompressedInput.NONE));
+    }
+
+    @Test
+    public void inflateInBlocks() throws IOException {
+        byte[] data = sample(50000);
+        for (byte[] compressed : Arrays.asList(gzip(data), zlib(data), data)) {
+            try (InputStream in = CompressedInput.open(new ByteArrayInputStream(compressed))) {
+                assertThat(Arrays.equals(readAll(in), data), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void pushCompressedFile() throws IOException {
+        File file = folder.newFile("sample.tbl.gz");
+        Files.write(file.toPath(), gzip(sample(20000)));
+
+        Etable etable = new Etable();
+        etable.pushFile(file, StandardCharsets.US_ASCII);
+        assertThat(etable.getRowCount(), is(20000));
+        assertThat(etable.get(19999).get("Name").toString(), is("name19999"));
+
+        assertThat(Etable.scan(file, StandardCharsets.US_ASCII, row -> { }), is(20000L));
+    }
+
+    @Test(expected = EOFException.class)
+    public void reportTruncatedInput() throws IOException {
+        byte[] gz = gzip(sample(50000));
+        try (InputStream in = CompressedInput.open(new ByteArrayInputStream(Arrays.copyOf(gz, gz.length / 2)))) {
+            readAll(in);
+        }
+    }
+
+    @Test
+    public void closeBeforeTheEnd() throws IOException {
+        InputStream in = CompressedInput.open(new ByteArrayInputStream(gzip(sample(200000))));
+        in.read(new byte[10]);
+        in.close();
+
+        assertThat(((CompressedInput.PipedInflater) in).thread.isAlive(), is(false));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void reportRuntimeErrorsOfTheInflater() throws IOException {
+        InputStream failing = new InputStream() {
+            public int read() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        try (InputStream in = new CompressedInput.PipedInflater(failing)) {
+            readAll(in);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+public class CursorTest {
+    private Etable etable = new Etable();
+
+    public CursorTest() {
+        etable.pushLineList(new String[] {
+            "%Name  Food",
+            " Ann   Apple",
+            " Bob   Banana",
+            " Carl  Cheese",
+            " Dee   Donut",
+        });
+    }
+
+    private List<String> names(Cursor cursor) {
+        List<String> nameList = new ArrayList<>();
+        for (Row rec = cursor.first(); rec != null; rec = cursor.next()) {
+            nameList.add(rec.get(0).toString());
+        }
+        return nameList;
+    }
+
+    @Test
+    public void cursorsAreIndependent() {
+        Cursor a = etable.cursor();
+        Cursor b = etable.cursor();
+
+        assertThat(a.first().get(0).toString(), is("Ann"));
+        a.next();
+        assertThat(b.first().get(0).toString(), is("Ann"));
+        assertThat(a.get().get(0).toString(), is("Bob"));
+        assertThat(a.getPosition(), is(1));
+        assertThat(b.getPosition(), is(0));
+
+        assertThat(names(a), is(Arrays.asList("Ann", "Bob", "Carl", "Dee")));
+        assertThat(a.eof(), is(true));
+        assertThat(a.get(), nullValue());
+    }
+
+    @Test
+    public void filterAndSeek() {
+        Cursor cursor = etable.cursor(rec -> rec.get(1).toString().indexOf('n') >= 0);
+
+        assertThat(names(cursor), is(Arrays.asList("Bob", "Dee")));
+        assertThat(cursor.seek(2).get(0).toString(), is("Dee"));
+        assertThat(cursor.getPosition(), is(3));
+        assertThat(cursor.previous().get(0).toString(), is("Bob"));
+        assertThat(cursor.previous(), nullValue());
+        assertThat(cursor.bof(), is(true));
+        assertThat(cursor.last().get(0).toString(), is("Dee"));
+        assertThat(cursor.seek(4), nullValue());
+    }
+
+    @Test
+    public void deleteKeepsTableCursor() {
+        etable.first();
+        etable.next();
+        etable.delete("Name");
+
+        assertThat(etable.get().get(0).toString(), is("Banana"));
+        assertThat(etable.get(3).getSize(), is(1));
+    }
+
+    @Test
+    public void scanFromManyThreads() throws Exception {
+        FrozenTable frozen = etable.freeze();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> futureList = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futureList.add(executor.submit(() -> {
+                    List<String> nameList = new ArrayList<>();
+                    for (int j = 0; j < 100; j++) {
+                        nameList = names(frozen.cursor());
+                    }
+                    return nameList;
+                }));
+            }
+            for (Future<List<String>> future : futureList) {
+                assertThat(future.get(), is(Arrays.asList("Ann", "Bob", "Carl", "Dee")));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
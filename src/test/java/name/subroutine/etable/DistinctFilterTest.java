@@ -0,0 +1,91 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DistinctFilterTest {
+    private Etable etable;
+
+    @Before
+    public void setUp() {
+        etable = new Etable();
+        etable.pushText("%Id Name   Color\n"
+            + " 1  apple  red\n"
+            + " 2  pear   green\n"
+            + " 1  apple  red\n"
+            + " 3  apple  green\n"
+            + " 2  pear   green\n"
+            + " 4  ab     c\n"
+            + " 4  a      bc\n");
+    }
+
+    @Test
+    public void distinctRows() {
+        Table result = etable.distinct(new String[0]);
+        assertThat(result.getRowCount(), is(5));
+        assertThat(result.getValue(2, "Id").toString(), is("3"));
+        assertThat(result.getValue(4, "Name").toString(), is("a"));
+        assertThat(result.getColumnCount(), is(3));
+    }
+
+    @Test
+    public void distinctColumns() {
+        Table result = etable.distinct(new String[] { "name" });
+        assertThat(result.getRowCount(), is(4));
+        assertThat(result.getValue(0, "Color").toString(), is("red"));
+
+        Table parallel = DistinctFilter.distinct(etable, new String[] { "Name" }, true);
+        assertThat(parallel.getRowCount(), is(4));
+        for (int i = 0; i < 4; i++) {
+            assertThat(parallel.get(i).toArray(), is(result.get(i).toArray()));
+        }
+    }
+
+    @Test
+    public void streamingFilter() {
+        DistinctFilter filter = new DistinctFilter(new String[] { "Id", "Color" });
+        int count = 0;
+        for (int i = 0; i < etable.getRowCount(); i++) {
+            if (filter.test(etable.get(i))) {
+                count++;
+            }
+        }
+        assertThat(count, is(5));
+        assertThat(filter.getCount(), is(5));
+
+        filter.clear();
+        assertThat(filter.test(etable.get(0)), is(true));
+        assertThat(filter.test(etable.get(2)), is(false));
+    }
+
+    @Test
+    public void fingerprintSetKeepsCollisions() {
+        RowFingerprint.FingerprintSet set = new RowFingerprint.FingerprintSet();
+        assertThat(set.add(1, 2, 0, null), is(true));
+        assertThat(set.add(1, 2, 1, null), is(false));
+        assertThat(set.add(1, 2, 1, j -> false), is(true));
+        for (int i = 0; i < 1000; i++) {
+            set.add(i * 31L, i, i, null);
+        }
+        assertThat(set.add(1, 2, 5, j -> j == 1), is(false));
+        assertThat(set.size(), is(1002));
+    }
+
+    @Test
+    public void compareValuesOfAnyKind() {
+        assertThat(RowFingerprint.sameChars(new StringBuffer("apple"), "apple"), is(true));
+        assertThat(RowFingerprint.sameChars("apple", new StringBuffer("apple")), is(true));
+        assertThat(RowFingerprint.sameChars(new StringBuffer("apple"), new StringBuilder("apply")), is(false));
+        assertThat(RowFingerprint.sameChars("", new StringBuffer()), is(true));
+        assertThat(RowFingerprint.sameChars("app", "apple"), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownColumn() {
+        etable.distinct(new String[] { "Nope" });
+    }
+}
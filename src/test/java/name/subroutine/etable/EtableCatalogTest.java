@@ -0,0 +1,128 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EtableCatalogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String TEXT = String.join("\n",
+        "# fruit",
+        "%Name   Color",
+        "_       Name",
+        " apple  red",
+        " lime   green",
+        "",
+        "# veg",
+        "%Name    Price",
+        " carrot  1",
+        "*onion   2",
+        " potato  3",
+        "_        0",
+        "%Unnamed",
+        " x",
+        "");
+
+    private File write(String text) throws IOException {
+        File file = folder.newFile("catalog.tbl");
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    @Test
+    public void findSections() throws IOException {
+        File file = write(TEXT);
+        try (EtableCatalog catalog = EtableCatalog.open(file, StandardCharsets.US_ASCII)) {
+            assertThat(catalog.getSectionCount(), is(3));
+
+            EtableCatalog.Section veg = catalog.getSection("VEG");
+            assertThat(veg.getIndex(), is(1));
+            assertThat(veg.getOffset(), is((long) TEXT.indexOf("%Name    Price")));
+            assertThat(veg.getEnd(), is((long) TEXT.indexOf("%Unnamed")));
+            assertThat(veg.getLineNumber(), is(8L));
+            assertThat(veg.getRowCount(), is(2));
+            assertThat(veg.getColumnList().get(1).getName(), is("Price"));
+
+            EtableCatalog.Section fruit = catalog.getSection(0);
+            assertThat(fruit.getName(), is("fruit"));
+            assertThat(fruit.getColumnList().get(1).getName(), is("ColorName"));
+            assertThat(catalog.getSection(2).getName(), nullValue());
+            assertThat(catalog.getSection(2).getEnd(), is((long) TEXT.length()));
+        }
+    }
+
+    @Test
+    public void loadSectionsLazily() throws IOException {
+        File file = write(TEXT);
+        try (EtableCatalog catalog = EtableCatalog.open(file, StandardCharsets.US_ASCII)) {
+            assertThat(catalog.isLoaded(1), is(false));
+
+            Table veg = catalog.getTable("veg");
+            assertThat(catalog.isLoaded(1), is(true));
+            assertThat(catalog.isLoaded(0), is(false));
+            assertThat(catalog.getTable(1), sameInstance(veg));
+            assertThat(((Etable) veg)._name, is("veg"));
+            assertThat(veg.getRowCount(), is(2));
+            assertThat(veg.get(1).get("Price").toString(), is("30"));
+            assertThat(((Etable) veg).schema, sameInstance(catalog.getSection(1).getSchema()));
+
+            Table fruit = catalog.getTable(0);
+            assertThat(fruit.getRowCount(), is(2));
+            assertThat(fruit.get(1).get("ColorName").toString(), is("green"));
+            assertThat(catalog.getTable("meat"), nullValue());
+        }
+    }
+
+    @Test
+    public void problemsGiveLinesAndOffsetsInFile() throws IOException {
+        String text = String.join("\n",
+            "%Name",
+            " a",
+            "%Name   Price",
+            " b      1",
+            "?bad",
+            "");
+        File file = write(text);
+        try (EtableCatalog catalog = EtableCatalog.open(file, StandardCharsets.US_ASCII)) {
+            Etable second = (Etable) catalog.getTable(1);
+            List<ParseDiagnostics.Problem> problemList = second.getDiagnostics().getProblemList();
+            assertThat(problemList.size(), is(1));
+            assertThat(problemList.get(0).getLineNumber(), is(5L));
+            assertThat(problemList.get(0).getOffset(), is((long) text.indexOf("?bad")));
+        }
+    }
+
+    @Test
+    public void nameOnlyRightBeforeHeader() throws IOException {
+        String text = String.join("\n",
+            "# fruit",
+            "",
+            "%Name",
+            " apple",
+            "# veg",
+            "----",
+            "%Name",
+            " carrot",
+            "# meat",
+            "%Name",
+            " ham",
+            "");
+        File file = write(text);
+        try (EtableCatalog catalog = EtableCatalog.open(file, StandardCharsets.US_ASCII)) {
+            assertThat(catalog.getSection(0).getName(), nullValue());
+            assertThat(catalog.getSection(1).getName(), nullValue());
+            assertThat(catalog.getSection(2).getName(), is("meat"));
+        }
+    }
+}
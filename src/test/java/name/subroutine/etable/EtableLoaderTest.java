@@ -0,0 +1,60 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EtableLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String name, String... lineList) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            for (String line : lineList) {
+                out.println(line);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void loadDirectoryWithGlob() throws IOException {
+        File terran = write("terran.tbl", "%Unit    HP", " marine  40", " goliath 125");
+        File protoss = write("protoss.tbl", "%Unit    Shield HP", " zealot  60     100");
+        write("notes.txt", "%Note", " not a unit");
+
+        EtableLoader.Result result = new EtableLoader(2).load(folder.getRoot(), "*.tbl");
+
+        assertThat(result.hasErrors(), is(false));
+        assertThat(result.getTableMap().size(), is(2));
+        assertThat(result.getTableMap().get(terran).getRowCount(), is(2));
+        assertThat(result.getTableMap().get(protoss).get(0).get("Shield").toString(), is("60"));
+
+        // files are in name order, so protoss comes first
+        Table union = result.union();
+        assertThat(union.getColumnCount(), is(3));
+        assertThat(union.getRowCount(), is(3));
+        assertThat(union.get(0).toArray(), is(new String[] { "zealot", "60", "100" }));
+        assertThat(union.get(1).toArray(), is(new String[] { "marine", "", "40" }));
+    }
+
+    @Test
+    public void failedFileDoesNotStopTheOthers() throws IOException {
+        File good = write("good.tbl", "%Unit    HP", " marine  40");
+        File missing = new File(folder.getRoot(), "missing.tbl");
+
+        EtableLoader.Result result = new EtableLoader().load(Arrays.asList(missing, good));
+
+        assertThat(result.hasErrors(), is(true));
+        assertThat(result.getErrorMap().get(missing) instanceof FileNotFoundException, is(true));
+        assertThat(result.getTableMap().get(good).getRowCount(), is(1));
+    }
+}
@@ -0,0 +1,127 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EtablePipelineTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void ringBufferKeepsOrder() throws InterruptedException {
+        SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(5);
+        assertThat(ring.capacity(), is(8));
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(ring.offer(i), is(true));
+        }
+        assertThat(ring.offer(8), is(false));
+        assertThat(ring.poll(), is(0));
+        assertThat(ring.offer(8), is(true));
+
+        for (int i = 1; i <= 8; i++) {
+            assertThat(ring.take(), is(i));
+        }
+        assertThat(ring.poll(), is(nullValue()));
+    }
+
+    @Test
+    public void ringBufferAcrossThreads() throws InterruptedException {
+        SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(4);
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 10000; i++) {
+                    ring.put(i);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        for (int i = 0; i < 10000; i++) {
+            assertThat(ring.take(), is(i));
+        }
+        producer.join();
+    }
+
+    @Test
+    public void sameAsPushFile() throws IOException {
+        /*
+         * long enough for many blocks and batches, with continuations of both
+         * headers and records, comments, rules and deleted records
+         */
+        StringBuilder text = new StringBuilder();
+        text.append("%Id      Name        City\n");
+        text.append("_        First       Of\n");
+        text.append("-------------------------\n");
+        for (int i = 0; i < 20000; i++) {
+            text.append(' ').append(String.format("%-8d", i)).append(String.format("%-12s", "name" + i))
+                .append("city").append(i % 7).append("\r\n");
+            if (i % 5 == 0) {
+                text.append("_        more        town\n");
+            }
+            if (i % 11 == 0) {
+                text.append("# comment ").append(i).append('\n');
+            }
+            if (i % 13 == 0) {
+                text.append("* deleted\n");
+            }
+        }
+        File file = folder.newFile("big.tbl");
+        Files.write(file.toPath(), text.toString().getBytes(StandardCharsets.US_ASCII));
+
+        Etable plain = new Etable();
+        plain.pushFile(file, StandardCharsets.US_ASCII);
+
+        Etable piped = new Etable();
+        piped.pushFilePipelined(file, StandardCharsets.US_ASCII);
+
+        assertThat(piped.getRowCount(), is(20000));
+        assertThat(piped.getRowCount(), is(plain.getRowCount()));
+        for (int c = 0; c < plain.getColumnCount(); c++) {
+            assertThat(piped.getColumn(c).getName(), is(plain.getColumn(c).getName()));
+        }
+        for (int i = 0; i < plain.getRowCount(); i++) {
+            for (int c = 0; c < plain.getColumnCount(); c++) {
+                assertThat(piped.getValue(i, c).toString(), is(plain.getValue(i, c).toString()));
+            }
+        }
+        assertThat(piped.getColumn(1).getName(), is("NameFirst"));
+        assertThat(piped.getValue(5, "CityOf").toString(), is("city5town"));
+        assertThat(piped.getValue(6, "CityOf").toString(), is("city6"));
+        assertThat(piped.lineNumber, is(plain.lineNumber));
+    }
+
+    @Test
+    public void strictErrorStopsThePipeline() throws IOException {
+        StringBuilder text = new StringBuilder("%Id      Name\n");
+        for (int i = 0; i < 50000; i++) {
+            text.append(" 1       one\n");
+        }
+        text.append("? what\n");
+        for (int i = 0; i < 50000; i++) {
+            text.append(" 2       two\n");
+        }
+        File file = folder.newFile("bad.tbl");
+        Files.write(file.toPath(), text.toString().getBytes(StandardCharsets.US_ASCII));
+
+        Etable etable = new Etable();
+        etable.setDiagnostics(new ParseDiagnostics(ParseDiagnostics.STRICT));
+        try {
+            etable.pushFilePipelined(file, StandardCharsets.US_ASCII);
+            throw new AssertionError("expected a parse error");
+        } catch (EtableException ex) {
+            assertThat(ex.getProblem().getLineNumber(), is(50002L));
+        }
+        assertThat(etable.getRowCount(), is(50000));
+    }
+}
@@ -5,9 +5,19 @@ import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertTrue;
 
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class EtableTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private Etable etable = new Etable();
 
     @Test
@@ -344,4 +354,137 @@ public class EtableTest {
         assertThat(etable.getColumn(0).getName(), is("column name 0"));
         assertThat(etable.getColumn(1).getName(), is("column name 1"));
     }
+
+    @Test
+    public void pushText() {
+        final String text = "%Symbol Description\r\n"
+            + "_       Text\r\n"
+            + " %      Header\n"
+            + "_       line\r"
+            + "\n"
+            + " _      Continuation";
+        etable.pushText(text);
+
+        Etable lineTable = new Etable();
+        lineTable.pushLineList(text.split("\r\n|\r|\n"));
+
+        assertThat(etable.getColumn(1).getName(), is("DescriptionText"));
+        assertThat(etable.getSize(), is(2));
+        assertThat(etable.get(0).get(1).toString(), is("Headerline"));
+        assertThat(etable.get(1).get(0).toString(), is("_"));
+        for (int i = 0; i < lineTable.getSize(); i++) {
+            assertThat(etable.get(i).toArray(), is(lineTable.get(i).toArray()));
+        }
+    }
+
+    @Test
+    public void longContinuation() {
+        StringBuilder text = new StringBuilder("%Name Text\n");
+        StringBuilder expected = new StringBuilder("first");
+        for (int r = 0; r < 3; r++) {
+            text.append(" n").append(r).append("   first\n");
+            for (int i = 0; i < 2000; i++) {
+                text.append("_   ").append(i % 10).append(" word ").append(i).append("  \n");
+                if (r == 0) {
+                    expected.append("word ").append(i);
+                }
+            }
+        }
+        etable.pushText(text);
+
+        Etable lineTable = new Etable();
+        lineTable.pushLineList(text.toString().split("\n"));
+
+        assertThat(etable.getSize(), is(3));
+        assertThat(etable.get(0).get(1).toString(), is(expected.toString()));
+        for (int i = 0; i < lineTable.getSize(); i++) {
+            assertThat(etable.get(i).toArray(), is(lineTable.get(i).toArray()));
+        }
+    }
+
+    @Test
+    public void pushTextFromCharArray() {
+        final char[] text = "xx%Symbol Description\n %      Header\nxx".toCharArray();
+        etable.pushText(text, 2, text.length - 4);
+
+        assertThat(etable.getSize(), is(1));
+        assertThat(etable.get(0).get(1).toString(), is("Header"));
+    }
+
+    @Test
+    public void asMap() {
+        etable.pushText("%Symbol Description Symbol\n"
+            + " %      Header      x\n"
+            + " #      Comment     y\n");
+
+        java.util.Map<String, String> first = etable.get(0).asMap();
+        java.util.Map<String, String> second = etable.get(1).asMap();
+
+        assertThat(first.size(), is(2));
+        assertThat(first.get("symbol"), is("%"));
+        assertThat(first.get("DESCRIPTION"), is("Header"));
+        assertThat(first.get("Missing"), is(nullValue()));
+        assertThat(first.containsKey("description"), is(true));
+        assertThat(first.keySet(), sameInstance(second.keySet()));
+
+        etable.get(1).set(1, "Changed");
+        assertThat(second.get("Description"), is("Changed"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void asMapIsReadOnly() {
+        etable.pushText("%Symbol Description\n %      Header\n");
+        etable.get(0).asMap().put("Symbol", "x");
+    }
+
+    @Test
+    public void editColumnsAfterPushText() {
+        etable.pushText("%Symbol Description\n %      Header\n");
+        checkColumnsEditable();
+    }
+
+    @Test
+    public void editColumnsAfterPushFile() throws IOException {
+        File file = folder.newFile("table.txt");
+        Files.write(file.toPath(), "%Symbol Description\n %      Header\n".getBytes(StandardCharsets.UTF_8));
+        etable.pushFile(file, StandardCharsets.UTF_8);
+        checkColumnsEditable();
+    }
+
+    private void push(String line) {
+        char[] chars = line.toCharArray();
+        etable.pushLine(chars, 0, chars.length, -1);
+    }
+
+    @Test
+    public void initDropsPendingContinuation() {
+        push("%A    B");
+        push(" 1    x");
+        push("_     y");
+        etable.init();
+
+        push("%A    B");
+        push(" 2    z");
+        push("_     w");
+        etable.finish();
+
+        assertThat(etable.getRowCount(), is(1));
+        assertThat(etable.get(0).get("B").toString(), is("zw"));
+    }
+
+    private void checkColumnsEditable() {
+        Etable other = new Etable();
+        other.pushText("%Symbol Description\n");
+
+        etable.getColumn(0).setName("Code");
+        etable.getColumn(1).setSize(4);
+        assertThat(etable.getColumn("Code"), is(0));
+        assertThat(etable.getColumn("Symbol"), is(-1));
+        assertThat(other.getColumn(0).getName(), is("Symbol"));
+        assertThat(other.getColumn("Symbol"), is(0));
+
+        List<StringBuffer> values = etable.slice(" x      Row", Etable._newRet, Etable._trimmer);
+        assertThat(values.get(0).toString(), is("x"));
+        assertThat(values.get(1).toString(), is("Row"));
+    }
 }
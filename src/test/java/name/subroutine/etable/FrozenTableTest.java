@@ -0,0 +1,108 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+public class FrozenTableTest {
+    private Etable etable = new Etable();
+
+    public FrozenTableTest() {
+        etable.pushLineList(new String[] {
+            "%Product Price",
+            " Hat     1.00",
+            " Box     2.00",
+            "_        0",
+        });
+    }
+
+    @Test
+    public void readFrozenTable() {
+        FrozenTable frozen = etable.freeze();
+
+        assertThat(frozen.getRowCount(), is(2));
+        assertThat(frozen.getColumnCount(), is(2));
+        assertThat(frozen.getColumn("price"), is(1));
+        assertThat(frozen.get(1).get("Price"), is((Object) "2.000"));
+        assertThat(frozen.getValue(0, 0), is((Object) "Hat"));
+        assertThat(frozen.get(0).toArray(), is(new String[] { "Hat", "1.00" }));
+        assertThat(frozen.get(2), nullValue());
+        assertThat(frozen.freeze(), sameInstance(frozen));
+    }
+
+    @Test
+    public void frozenTableIsACopy() {
+        FrozenTable frozen = etable.freeze();
+        etable.get(0).set(0, "Cat");
+
+        assertThat(frozen.get(0).get(0), is((Object) "Hat"));
+    }
+
+    @Test
+    public void traverseFrozenTable() {
+        FrozenTable frozen = etable.freeze();
+
+        frozen.first();
+        assertThat(frozen.getValue("Product"), is((Object) "Hat"));
+        frozen.next();
+        assertThat(frozen.getValue("Product"), is((Object) "Box"));
+        frozen.next();
+        assertTrue("Should reach end of file", frozen.eof());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void pushLineFails() {
+        etable.freeze().pushLine(" Cup     3.00");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setValueFails() {
+        etable.freeze().get(0).set(0, "Cat");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getValueListFails() {
+        etable.freeze().get(0).getValueList();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void renameColumnFails() {
+        etable.freeze().getColumn(0).setName("Item");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void addColumnToListFails() {
+        etable.freeze().getColumnList().add(new EtableColumn("Item"));
+    }
+
+    @Test
+    public void readFromManyThreads() throws Exception {
+        FrozenTable frozen = etable.freeze();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futureList = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futureList.add(executor.submit(() -> {
+                    int count = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        for (frozen.first(); !frozen.eof(); frozen.next()) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+            }
+            for (Future<Integer> future : futureList) {
+                assertThat(future.get(), is(2000));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
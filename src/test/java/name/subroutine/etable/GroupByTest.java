@@ -0,0 +1,89 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class GroupByTest {
+    private Etable etable = new Etable();
+
+    private void pushUnits() {
+        etable.pushLineList(new String[] {
+            "%Unit     Size   Food Mineral HP",
+            " battle   L      8    400     500",
+            "_cruiser",
+            " marine   S      1    50      40",
+            " zealot   S      2    100     160",
+            " archon   L      4    upg     10.5",
+            " goliath  L      2    100     125",
+        });
+    }
+
+    @Test
+    public void aggregateBySize() {
+        pushUnits();
+        Table result = etable.groupBy(new String[] { "Size" }).aggregate(
+            Aggregate.count(),
+            Aggregate.sum("Food"),
+            Aggregate.min("Mineral"),
+            Aggregate.max("Mineral"),
+            Aggregate.average("HP"));
+
+        assertThat(result.getColumnCount(), is(6));
+        assertThat(result.getColumn(2).getName(), is("sum(Food)"));
+        assertThat(result.getRowCount(), is(2));
+        assertThat(result.get(0).toArray(), is(new String[] {
+            "L", "3", "14", "100", "400", "211.83333333333334",
+        }));
+        assertThat(result.get(1).toArray(), is(new String[] {
+            "S", "2", "3", "50", "100", "100",
+        }));
+    }
+
+    @Test
+    public void aggregateWithoutNumbers() {
+        pushUnits();
+        Table result = etable.groupBy(new String[] { "Unit" }).aggregate(
+            Aggregate.sum("Mineral"),
+            Aggregate.max("Mineral"));
+
+        assertThat(result.get(3).get(0).toString(), is("archon"));
+        assertThat(result.get(3).get(1).toString(), is("0"));
+        assertThat(result.get(3).get(2).toString(), is(""));
+    }
+
+    @Test
+    public void aggregateInParallel() {
+        etable.pushLine("%Key Value");
+        int count = GroupBy.THRESHOLD * 5;
+        for (int i = 0; i < count; i++) {
+            etable.push(new String[] { "k" + (i % 3), Integer.toString(i) });
+        }
+
+        Table result = etable.groupBy(new String[] { "Key" }).aggregate(
+            Aggregate.count(), Aggregate.sum("Value"));
+
+        assertThat(result.getRowCount(), is(3));
+        long total = 0;
+        for (int i = 0; i < 3; i++) {
+            assertThat(result.get(i).get("Key").toString(), is("k" + i));
+            total += Long.parseLong(result.get(i).get("sum(Value)").toString());
+        }
+        assertThat(total, is((long) count * (count - 1) / 2));
+        assertThat(result.get(0).get("count").toString(), is(Integer.toString(count / 3 + 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownKeyColumn() {
+        pushUnits();
+        etable.groupBy(new String[] { "Nope" });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownAggregateColumn() {
+        pushUnits();
+        etable.groupBy(new String[] { "Size" }).aggregate(Aggregate.sum("Nope"));
+    }
+}
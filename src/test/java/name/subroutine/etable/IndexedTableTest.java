@@ -0,0 +1,147 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IndexedTableTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String name, String text) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private String sample() {
+        StringBuilder text = new StringBuilder();
+        text.append(" orphan\n");
+        text.append("%Id     Name\n_       Of\n# comment\n");
+        for (int i = 0; i < 200; i++) {
+            text.append(' ').append(String.format("%-7d", i)).append("item").append(i).append('\n');
+            if (i % 3 == 0) {
+                text.append("# between\n_       \u00E9t\u00E9\n");
+            }
+            if (i % 50 == 7) {
+                text.append("*gone   deleted\n_       more\n");
+            }
+        }
+        text.append("\n%Code  Price\r\n 1     9\r\n 2     10\r\n_      5");
+        return text.toString();
+    }
+
+    @Test
+    public void readSameRecordsAsEtable() throws IOException {
+        File data = write("sample.tbl", sample());
+        Etable etable = new Etable();
+        etable.pushFile(data, StandardCharsets.UTF_8);
+
+        try (IndexedTable table = new IndexedTable(data, StandardCharsets.UTF_8)) {
+            assertThat(table.getRowCount(), is(etable.getRowCount()));
+            assertThat(table.getIndex().getHeaderCount(), is(2));
+            for (int i = table.getRowCount() - 1; i >= 0; i -= 7) {
+                assertThat(table.get(i).toArray(), is(etable.get(i).toArray()));
+            }
+            assertThat(table.get(4).get("NameOf").toString(), is("item3\u00E9t\u00E9"));
+            assertThat(table.get(202).get("Price").toString(), is("105"));
+            assertThat(table.getColumnList().get(0).getName(), is("Code"));
+            assertThat(table.get(203), nullValue());
+            assertThat(table.get(0).getSize(), is(0));
+        }
+    }
+
+    @Test
+    public void reuseSidecarUntilDataChanges() throws IOException {
+        File data = write("sample.tbl", sample());
+        EtableIndex built = EtableIndex.open(data, StandardCharsets.UTF_8);
+        File sidecar = EtableIndex.sidecarFor(data);
+        assertThat(sidecar.isFile(), is(true));
+        assertThat(sidecar.length() < data.length() / 4, is(true));
+
+        EtableIndex read = EtableIndex.read(sidecar);
+        assertThat(read.isFresh(data), is(true));
+        assertThat(read.getRowCount(), is(built.getRowCount()));
+        for (int i = 0; i < built.getRowCount(); i++) {
+            assertThat(read.getRowOffset(i), is(built.getRowOffset(i)));
+            assertThat(read.getRowLength(i), is(built.getRowLength(i)));
+        }
+
+        Files.write(data.toPath(), "%A\n x\n".getBytes(StandardCharsets.UTF_8));
+        data.setLastModified(data.lastModified() + 2000);
+        assertThat(read.isFresh(data), is(false));
+        assertThat(EtableIndex.open(data, StandardCharsets.UTF_8).getRowCount(), is(1));
+    }
+
+    @Test
+    public void keepIndexWhenSidecarCannotBeWritten() throws IOException {
+        File data = write("sample.tbl", sample());
+        File sidecar = EtableIndex.sidecarFor(data);
+        File temp = new File(sidecar.getPath() + ".tmp");
+        assertThat(temp.mkdir(), is(true));
+
+        EtableIndex index = EtableIndex.open(data, StandardCharsets.UTF_8);
+        assertThat(index.getRowCount(), is(EtableIndex.build(data, StandardCharsets.UTF_8).getRowCount()));
+        assertThat(sidecar.exists(), is(false));
+        assertThat(temp.isDirectory(), is(true));
+    }
+
+    @Test
+    public void rebuildDamagedSidecar() throws IOException {
+        File data = write("sample.tbl", sample());
+        File sidecar = EtableIndex.sidecarFor(data);
+        int rowCount = EtableIndex.open(data, StandardCharsets.UTF_8).getRowCount();
+
+        /*
+         * magic, version, length, time and "UTF-8" come before the header count
+         */
+        long headerCountAt = 4 + 4 + 8 + 8 + 2 + 5;
+        try (RandomAccessFile file = new RandomAccessFile(sidecar, "rw")) {
+            file.seek(headerCountAt);
+            int headerCount = file.readInt();
+            file.seek(headerCountAt + 4 + headerCount * 16 + 4);
+            file.writeInt(Integer.MAX_VALUE);
+        }
+        assertDamaged(sidecar);
+        assertThat(EtableIndex.open(data, StandardCharsets.UTF_8).getRowCount(), is(rowCount));
+
+        try (RandomAccessFile file = new RandomAccessFile(sidecar, "rw")) {
+            file.seek(headerCountAt);
+            file.writeInt(-1);
+        }
+        assertDamaged(sidecar);
+        assertThat(EtableIndex.open(data, StandardCharsets.UTF_8).getRowCount(), is(rowCount));
+    }
+
+    private void assertDamaged(File sidecar) {
+        try {
+            EtableIndex.read(sidecar);
+        } catch (IOException ex) {
+            return;
+        }
+        throw new AssertionError("damaged sidecar was read");
+    }
+
+    @Test
+    public void cacheRecentRows() throws IOException {
+        File data = write("sample.tbl", sample());
+        try (IndexedTable table = new IndexedTable(data, StandardCharsets.UTF_8)) {
+            table.setCacheSize(2);
+            Row first = table.get(0);
+            assertThat(table.get(0), sameInstance(first));
+            table.get(1);
+            table.get(2);
+            assertThat(table.get(0), not(sameInstance(first)));
+            assertThat(table.get(0).toArray(), is(first.toArray()));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.junit.Test;
+
+public class LineReaderTest {
+    private static final byte[] UTF8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    private List<String> readAll(LineReader reader) throws IOException {
+        List<String> lineList = new ArrayList<>();
+        while (reader.next()) {
+            lineList.add(reader.getLine());
+        }
+        return lineList;
+    }
+
+    private byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    @Test
+    public void readLineBreaks() throws IOException {
+        byte[] text = "one\ntwo\r\nthree\rfour\n\nsix".getBytes(StandardCharsets.US_ASCII);
+        LineReader reader = new LineReader(new ByteArrayInputStream(text), StandardCharsets.UTF_8, 4);
+
+        assertThat(readAll(reader), is(Arrays.asList("one", "two", "three", "four", "", "six")));
+        assertThat(reader.getLineNumber(), is(6L));
+    }
+
+    @Test
+    public void trackByteOffsets() throws IOException {
+        byte[] text = concat(UTF8_BOM, "ab\r\n\u00E9t\u00E9\nxyz".getBytes(StandardCharsets.UTF_8));
+        LineReader reader = new LineReader(new ByteArrayInputStream(text), StandardCharsets.ISO_8859_1, 4);
+
+        assertThat(reader.getCharset(), is(StandardCharsets.UTF_8));
+        reader.next();
+        assertThat(reader.getOffset(), is(3L));
+        reader.next();
+        assertThat(reader.getLine(), is("\u00E9t\u00E9"));
+        assertThat(reader.getOffset(), is(7L));
+        reader.next();
+        assertThat(reader.getOffset(), is(13L));
+        assertThat(reader.next(), is(false));
+    }
+
+    @Test
+    public void readUtf16WithBom() throws IOException {
+        byte[] text = "\uFEFF%Name Size\r\n Hat  S\n".getBytes(StandardCharsets.UTF_16LE);
+        LineReader reader = new LineReader(new ByteArrayInputStream(text), StandardCharsets.UTF_8);
+
+        assertThat(reader.getCharset(), is(StandardCharsets.UTF_16LE));
+        assertThat(readAll(reader), is(Arrays.asList("%Name Size", " Hat  S")));
+    }
+
+    @Test
+    public void pushFileWithCharset() throws IOException {
+        File file = File.createTempFile("etable", ".tbl");
+        file.deleteOnExit();
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(UTF8_BOM);
+            out.write(("%Name    Gr\u00F6\u00DFe Farbe\n"
+                + " M\u00FCtze   S     r\u00F6tlich\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        Etable etable = new Etable();
+        etable.pushFile(file, StandardCharsets.ISO_8859_1);
+
+        // offsets count chars, not bytes
+        assertThat(etable.getColumn(1).getName(), is("Gr\u00F6\u00DFe"));
+        assertThat(etable.getColumn(1).getOffset(), is(9));
+        assertThat(etable.get(0).get(0).toString(), is("M\u00FCtze"));
+        assertThat(etable.get(0).get("Farbe").toString(), is("r\u00F6tlich"));
+    }
+}
@@ -0,0 +1,109 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class LineScannerTest {
+    /**
+     * Spaces, tabs, ASCII, control chars and non-ASCII chars, some of which are
+     * whitespace (ideographic space, file separator) and some of which are not
+     * (no-break space, start of heading)
+     */
+    private static final char[] ALPHABET = {
+        ' ', ' ', ' ', ' ', '\t', 'a', 'Z', '%', '_', '~', '\u007F',
+        '\u3000', '\u00A0', '\u001C', '\u0001', '\u8020', '\uFFFF',
+    };
+
+    private Random random = new Random(42);
+
+    private char[] randomLine() {
+        char[] buf = new char[random.nextInt(40)];
+        for (int i = 0; i < buf.length; i++) {
+            buf[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return buf;
+    }
+
+    @Test
+    public void classifyLines() {
+        assertThat(LineScanner.classify("%Unit Size"), is(Etable.HEADER));
+        assertThat(LineScanner.classify(" marine S"), is(Etable.RECORD));
+        assertThat(LineScanner.classify("_cruiser"), is(Etable.CONTINUATION));
+        assertThat(LineScanner.classify("*deleted"), is(Etable.DELETED_RECORD));
+        assertThat(LineScanner.classify("-----"), is(Etable.RULE));
+        assertThat(LineScanner.classify("# comment"), is(Etable.COMMENT));
+        assertThat(LineScanner.classify(" \t \r  "), is(LineScanner.BLANK));
+        assertThat(LineScanner.classify(""), is(LineScanner.BLANK));
+        assertThat(LineScanner.classify("?what"), is(LineScanner.UNKNOWN));
+    }
+
+    @Test
+    public void scansMatchScalar() {
+        for (int n = 0; n < 20000; n++) {
+            char[] buf = randomLine();
+            int start = buf.length == 0 ? 0 : random.nextInt(buf.length);
+
+            assertThat(LineScanner.skipBlank(buf, start, buf.length),
+                is(LineScanner.skipBlankScalar(buf, start, buf.length)));
+            assertThat(LineScanner.skipWhitespace(buf, start, buf.length),
+                is(LineScanner.skipWhitespaceScalar(buf, start, buf.length)));
+            assertThat(LineScanner.skipWord(buf, start, buf.length),
+                is(LineScanner.skipWordScalar(buf, start, buf.length)));
+            assertThat(LineScanner.classify(buf, 0, buf.length) == LineScanner.BLANK,
+                is(new String(buf).trim().isEmpty()));
+        }
+    }
+
+    @Test
+    public void headerMatchesScalar() {
+        for (int n = 0; n < 5000; n++) {
+            String header = "%" + new String(randomLine()) + new String(randomLine());
+
+            List<Column> expected = scalarColumnLst(header);
+            List<Column> actual = Etable.createColumnLst(header);
+            assertThat(actual.size(), is(expected.size()));
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i).getName(), is(expected.get(i).getName()));
+                assertThat(actual.get(i).getOffset(), is(expected.get(i).getOffset()));
+                assertThat(actual.get(i).getSize(), is(expected.get(i).getSize()));
+            }
+        }
+    }
+
+    /**
+     * The header tokenizer as it was before scanning was vectorized: one char at a
+     * time, with a space appended to flush out the last column
+     */
+    private static List<Column> scalarColumnLst(String buf) {
+        List<Column> columnList = new ArrayList<>();
+        boolean space = true;
+        EtableColumn column = null;
+        for (int idx = 1; idx <= buf.length(); idx++) {
+            char chr = idx < buf.length() ? buf.charAt(idx) : ' ';
+            if (space) {
+                if (!Character.isWhitespace(chr)) {
+                    if (column != null) {
+                        column.setSize(idx - column._offset);
+                    }
+                    column = new EtableColumn();
+                    column._offset = idx;
+                    column.name.append(chr);
+                    space = false;
+                }
+                continue;
+            }
+            if (Character.isWhitespace(chr)) {
+                space = true;
+                columnList.add(column);
+                continue;
+            }
+            column.name.append(chr);
+        }
+        return columnList;
+    }
+}
@@ -0,0 +1,125 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.nio.charset.*;
+
+import org.junit.Test;
+
+public class ParseDiagnosticsTest {
+    private static final String TEXT = String.join("\n",
+        "_       orphan",
+        "%Name   Food",
+        " Ann    Apple",
+        "?what",
+        "_       Pie");
+
+    @Test
+    public void lenientModeKeepsGoing() throws IOException {
+        Etable etable = new Etable();
+        etable.pushStream(new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.US_ASCII)),
+            StandardCharsets.US_ASCII);
+
+        ParseDiagnostics diagnostics = etable.getDiagnostics();
+        assertThat(diagnostics.getErrorCount(), is(2L));
+        ParseDiagnostics.Problem first = diagnostics.getProblemList().get(0);
+        assertThat(first.getLineNumber(), is(1L));
+        assertThat(first.getOffset(), is(0L));
+        assertThat(first.getReason(), is("continuation without a header or record"));
+        ParseDiagnostics.Problem second = diagnostics.getProblemList().get(1);
+        assertThat(second.getLineNumber(), is(4L));
+        assertThat(second.getOffset(), is(42L));
+        assertThat(second.getReason(), is("unknown line identifier"));
+
+        assertThat(etable.getRowCount(), is(1));
+        assertThat(etable.get(0).get(1).toString(), is("ApplePie"));
+    }
+
+    @Test
+    public void strictModeStopsAtFirstProblem() {
+        Etable etable = new Etable();
+        etable.setDiagnostics(new ParseDiagnostics(ParseDiagnostics.STRICT));
+        try {
+            etable.pushText(TEXT);
+            assertThat("expected an exception", false, is(true));
+        } catch (EtableException ex) {
+            assertThat(ex.getProblem().getLineNumber(), is(1L));
+            assertThat(ex.getMessage(), is("line 1 (offset 0): continuation without a header or record"));
+        }
+        assertThat(etable.getColumnCount(), is(0));
+    }
+
+    @Test
+    public void keepOnlyUpToCapacity() {
+        Etable etable = new Etable();
+        etable.setDiagnostics(new ParseDiagnostics(ParseDiagnostics.LENIENT, 2));
+        etable.pushLineList(new String[] { "?", "?", "?", "?", " record" });
+
+        assertThat(etable.getDiagnostics().getErrorCount(), is(5L));
+        assertThat(etable.getDiagnostics().getProblemList().size(), is(2));
+        assertThat(etable.getDiagnostics().getProblemList().get(1).getOffset(), is(-1L));
+    }
+
+    @Test
+    public void recordBeforeHeaderIsKept() {
+        Etable etable = new Etable();
+        etable.pushText(" stray\n%Name\n Ann\n");
+
+        assertThat(etable.getDiagnostics().getErrorCount(), is(1L));
+        assertThat(etable.getRowCount(), is(2));
+        assertThat(etable.get(0).getSize(), is(0));
+        assertThat(etable.get(1).get("Name").toString(), is("Ann"));
+    }
+
+    @Test
+    public void lineNumbersRestartWithEachInput() {
+        Etable etable = new Etable();
+        etable.pushText(TEXT);
+        etable.pushText(TEXT);
+
+        /*
+         * the orphan now continues the last record, so only the unknown line is
+         * reported the second time
+         */
+        ParseDiagnostics.Problem third = etable.getDiagnostics().getProblemList().get(2);
+        assertThat(third.getLineNumber(), is(4L));
+        assertThat(third.getOffset(), is(42L));
+    }
+
+    @Test
+    public void arenaTableReportsTheSameProblems() throws IOException {
+        Etable etable = new Etable();
+        etable.pushText(TEXT + "\n stray");
+        ArenaTable arena = new ArenaTable();
+        arena.pushStream(new ByteArrayInputStream((TEXT + "\n stray").getBytes(StandardCharsets.US_ASCII)),
+            StandardCharsets.US_ASCII);
+
+        assertThat(arena.getDiagnostics().getErrorCount(), is(2L));
+        for (int i = 0; i < 2; i++) {
+            assertThat(arena.getDiagnostics().getProblemList().get(i).toString(),
+                is(etable.getDiagnostics().getProblemList().get(i).toString()));
+        }
+        assertThat(arena.get(0).get(1).toString(), is("ApplePie"));
+
+        ArenaTable before = new ArenaTable();
+        before.pushText(" stray\n%Name\n Ann\n");
+        assertThat(before.getDiagnostics().getProblemList().get(0).getReason(), is("record before any header"));
+        assertThat(before.getRowCount(), is(2));
+    }
+
+    @Test
+    public void arenaTableStrictMode() {
+        ArenaTable arena = new ArenaTable();
+        arena.setDiagnostics(new ParseDiagnostics(ParseDiagnostics.STRICT));
+        try {
+            arena.pushText("%Name\n Ann\n?what\n");
+            assertThat("expected an exception", false, is(true));
+        } catch (EtableException ex) {
+            assertThat(ex.getMessage(), is("line 3 (offset 11): unknown line identifier"));
+        }
+        assertThat(arena.getRowCount(), is(1));
+    }
+}
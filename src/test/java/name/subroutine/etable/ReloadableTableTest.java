@@ -0,0 +1,81 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReloadableTableTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private void write(File file, String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void oldVersionStaysTheSame() throws IOException {
+        File file = folder.newFile("fruit.tbl");
+        write(file, "%Name   Color\n apple  red\n");
+
+        try (ReloadableTable reloadable = new ReloadableTable(file, StandardCharsets.US_ASCII)) {
+            Table first = reloadable.get();
+            assertThat(reloadable.getVersion(), is(1L));
+            assertThat(reloadable.reloadIfChanged(), is(false));
+
+            write(file, "%Name   Color\n apple  green\n pear   yellow\n");
+            reloadable.reload();
+
+            Table second = reloadable.get();
+            assertThat(reloadable.getVersion(), is(2L));
+            assertThat(second.getRowCount(), is(2));
+            assertThat(second.getValue(0, "Color").toString(), is("green"));
+            assertThat(first.getRowCount(), is(1));
+            assertThat(first.getValue(0, "Color").toString(), is("red"));
+        }
+    }
+
+    @Test
+    public void failedLoadKeepsVersion() throws IOException {
+        File file = folder.newFile("fruit.tbl");
+        write(file, "%Name   Color\n apple  red\n");
+
+        try (ReloadableTable reloadable = new ReloadableTable(file, StandardCharsets.US_ASCII)) {
+            Table first = reloadable.get();
+            assertThat(file.delete(), is(true));
+            try {
+                reloadable.reload();
+                throw new AssertionError("expected the load to fail");
+            } catch (IOException ex) {
+                assertThat(reloadable.getLastError(), is((Exception) ex));
+            }
+            assertThat(reloadable.get(), sameInstance(first));
+            assertThat(reloadable.getVersion(), is(1L));
+        }
+    }
+
+    @Test
+    public void watchForChanges() throws IOException, InterruptedException {
+        File file = folder.newFile("fruit.tbl");
+        write(file, "%Name   Color\n apple  red\n");
+
+        try (ReloadableTable reloadable = new ReloadableTable(file, StandardCharsets.US_ASCII)) {
+            reloadable.setDebounce(50);
+            reloadable.watch();
+
+            write(file, "%Name   Color\n apple  red\n pear   yellow\n");
+            for (int i = 0; i < 200 && reloadable.getVersion() < 2; i++) {
+                Thread.sleep(50);
+            }
+            assertThat(reloadable.getVersion() >= 2, is(true));
+            assertThat(reloadable.get().getRowCount(), is(2));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.math.*;
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RowMapperTest {
+    private Etable etable;
+
+    public static class Person {
+        String name;
+        int age;
+        Double height;
+        long id;
+        BigDecimal balance;
+        boolean active;
+        int setterCalls;
+
+        public Person() {
+        }
+
+        public Person setFirstName(String name) {
+            this.name = name;
+            setterCalls++;
+            return this;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+            setterCalls++;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        etable = new Etable();
+        etable.pushLine("%First_Name  Age  Height  Id          Balance  Active  Notes");
+        etable.pushLine(" Ann         31   1.68    9000000001  12.50    yes     tall");
+        etable.pushLine(" Bob         n/a          2           x        no");
+    }
+
+    @Test
+    public void mapSettersAndFields() {
+        RowMapper<Person> mapper = RowMapper.of(Person.class, etable);
+        List<Person> list = mapper.mapAll(etable);
+
+        Person ann = list.get(0);
+        assertThat(ann.name, is("Ann"));
+        assertThat(ann.age, is(31));
+        assertThat(ann.height, is(1.68));
+        assertThat(ann.id, is(9000000001L));
+        assertThat(ann.balance, is(new BigDecimal("12.50")));
+        assertThat(ann.active, is(true));
+        assertThat(ann.setterCalls, is(2));
+
+        Person bob = list.get(1);
+        assertThat(bob.name, is("Bob"));
+        assertThat(bob.age, is(0));
+        assertThat(bob.height, is(nullValue()));
+        assertThat(bob.id, is(2L));
+        assertThat(bob.balance, is(nullValue()));
+        assertThat(bob.active, is(false));
+    }
+
+    @Test
+    public void columnsInAnotherOrder() {
+        Etable other = new Etable();
+        other.pushLine("%AGE first_name");
+        other.pushLine(" 7   Cat");
+
+        Person cat = RowMapper.of(Person.class, other).map(other.get(0));
+        assertThat(cat.name, is("Cat"));
+        assertThat(cat.age, is(7));
+        assertThat(cat.height, is(nullValue()));
+    }
+
+    public static class Unsupported {
+        List<String> notes;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedType() {
+        RowMapper.of(Unsupported.class, etable);
+    }
+
+    public static class UnsupportedSetter {
+        String notes;
+
+        public void setNotes(List<String> notes) {
+            this.notes = String.join(",", notes);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedSetterType() {
+        RowMapper.of(UnsupportedSetter.class, etable);
+    }
+
+    @Test
+    public void parseFromStringBuffer() {
+        assertThat(NumberParser.parseLong(new StringBuffer(" 12 "), 0), is(12L));
+        assertThat(NumberParser.parseDouble(new StringBuffer("-3.5")), is(-3.5));
+        assertThat(Double.isNaN(NumberParser.parseDouble(new StringBuffer("4/5 upg"))), is(true));
+    }
+
+    @Test
+    public void parseLong() {
+        assertThat(NumberParser.parseLong(" -42 ", 0), is(-42L));
+        assertThat(NumberParser.parseLong("+7", 0), is(7L));
+        assertThat(NumberParser.parseLong("9223372036854775807", 0), is(Long.MAX_VALUE));
+        assertThat(NumberParser.parseLong("-9223372036854775808", 0), is(Long.MIN_VALUE));
+        assertThat(NumberParser.parseLong("9223372036854775808", -1), is(-1L));
+        assertThat(NumberParser.parseLong("1.5", -1), is(-1L));
+        assertThat(NumberParser.parseLong("-", -1), is(-1L));
+        assertThat(NumberParser.parseLong("", -1), is(-1L));
+    }
+}
@@ -0,0 +1,151 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RowPublisherTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String TEXT = "%Name    Food\n"
+        + " Ann     Apple\n"
+        + "_        Pie\n"
+        + "# a comment\n"
+        + " Bob     Banana\n"
+        + " Cat     Cherry\n"
+        + "_        Tart\n";
+
+    /**
+     * Keeps everything it is given, and asks for nothing by itself
+     */
+    static class Recorder implements Flow.Subscriber<Row> {
+        Flow.Subscription subscription;
+        List<String> valueList = new ArrayList<>();
+        Throwable error;
+        boolean complete;
+
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public void onNext(Row item) {
+            valueList.add(item.get(0) + ":" + item.get("Food"));
+        }
+
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        public void onComplete() {
+            complete = true;
+        }
+    }
+
+    @Test
+    public void publishOnDemand() {
+        Recorder recorder = new Recorder();
+        RowPublisher.of(TEXT).subscribe(recorder);
+        assertThat(recorder.valueList.size(), is(0));
+
+        recorder.subscription.request(1);
+        assertThat(recorder.valueList, is(Arrays.asList("Ann:ApplePie")));
+
+        recorder.subscription.request(1);
+        assertThat(recorder.valueList.size(), is(2));
+        assertThat(recorder.complete, is(false));
+
+        recorder.subscription.request(5);
+        assertThat(recorder.valueList, is(Arrays.asList("Ann:ApplePie", "Bob:Banana", "Cat:CherryTart")));
+        assertThat(recorder.complete, is(true));
+        assertThat(recorder.error, is(nullValue()));
+    }
+
+    @Test
+    public void requestFromOnNext() {
+        Recorder recorder = new Recorder() {
+            public void onNext(Row item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        RowPublisher.of(TEXT).subscribe(recorder);
+        recorder.subscription.request(1);
+
+        assertThat(recorder.valueList.size(), is(3));
+        assertThat(recorder.complete, is(true));
+    }
+
+    @Test
+    public void cancelClosesTheFile() throws IOException {
+        File file = folder.newFile("food.tbl");
+        Files.write(file.toPath(), TEXT.getBytes(StandardCharsets.US_ASCII));
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        Recorder recorder = new Recorder() {
+            public void onNext(Row item) {
+                super.onNext(item);
+                subscription.cancel();
+            }
+        };
+        RowPublisher.of(channel, StandardCharsets.US_ASCII).subscribe(recorder);
+        assertThat(channel.isOpen(), is(true));
+
+        recorder.subscription.request(10);
+        assertThat(recorder.valueList.size(), is(1));
+        assertThat(channel.isOpen(), is(false));
+        assertThat(recorder.complete, is(false));
+        assertThat(recorder.error, is(nullValue()));
+    }
+
+    @Test
+    public void channelHasOneSubscriber() throws IOException {
+        File file = folder.newFile("food.tbl");
+        Files.write(file.toPath(), TEXT.getBytes(StandardCharsets.US_ASCII));
+        RowPublisher publisher;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            publisher = RowPublisher.of(channel, StandardCharsets.US_ASCII);
+            publisher.subscribe(new Recorder());
+
+            Recorder second = new Recorder();
+            publisher.subscribe(second);
+            assertThat(second.error, instanceOf(IllegalStateException.class));
+        }
+    }
+
+    @Test
+    public void fileForEachSubscriber() throws IOException {
+        File file = folder.newFile("food.tbl");
+        Files.write(file.toPath(), TEXT.getBytes(StandardCharsets.US_ASCII));
+        RowPublisher publisher = RowPublisher.of(file, StandardCharsets.US_ASCII);
+
+        for (int i = 0; i < 2; i++) {
+            Recorder recorder = new Recorder();
+            publisher.subscribe(recorder);
+            recorder.subscription.request(Long.MAX_VALUE);
+            assertThat(recorder.valueList.size(), is(3));
+            assertThat(recorder.complete, is(true));
+        }
+    }
+
+    @Test
+    public void badRequest() {
+        Recorder recorder = new Recorder();
+        RowPublisher.of(TEXT).subscribe(recorder);
+        recorder.subscription.request(0);
+
+        assertThat(recorder.error, instanceOf(IllegalArgumentException.class));
+        recorder.subscription.request(1);
+        assertThat(recorder.valueList.size(), is(0));
+    }
+}
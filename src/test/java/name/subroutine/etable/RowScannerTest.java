@@ -0,0 +1,104 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class RowScannerTest {
+    private static final String TEXT = String.join("\n",
+        "# snacks",
+        "%Name   Food        Price",
+        "_Of     Type",
+        " Ann    Apple       1",
+        "_       Pie         50",
+        "*Bob    Banana      2",
+        "_       Split       3",
+        " Carl   Cheese      4",
+        "",
+        "-----------------------",
+        " Dee    Donut",
+        "%Only",
+        " last line");
+
+    private InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void scanSameAsPushStream() throws IOException {
+        Etable etable = new Etable();
+        etable.pushStream(stream(TEXT), StandardCharsets.US_ASCII);
+
+        List<List<String>> rowList = new ArrayList<>();
+        List<String> nameList = new ArrayList<>();
+        try (RowScanner scanner = new RowScanner(stream(TEXT), StandardCharsets.US_ASCII)) {
+            while (scanner.next()) {
+                rowList.add(Arrays.asList(scanner.getRow().toArray()));
+                nameList.add(scanner.getColumnList().get(0).getName());
+            }
+        }
+
+        assertThat(rowList.size(), is(etable.getRowCount()));
+        for (int i = 0; i < rowList.size(); i++) {
+            assertThat(rowList.get(i), is(Arrays.asList(etable.get(i).toArray())));
+        }
+        assertThat(rowList.get(0), is(Arrays.asList("Ann", "ApplePie", "150")));
+        assertThat(nameList, is(Arrays.asList("NameOf", "NameOf", "NameOf", "Only")));
+    }
+
+    @Test
+    public void reuseRow() throws IOException {
+        Set<Row> rowSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        long count = 0;
+        try (RowScanner scanner = new RowScanner(stream(TEXT), StandardCharsets.US_ASCII)) {
+            while (scanner.next()) {
+                rowSet.add(scanner.getRow());
+                count++;
+            }
+        }
+        assertThat(count, is(4L));
+        assertThat(rowSet.size(), is(1));
+    }
+
+    @Test
+    public void allocateNothingPerRecord() throws IOException {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        StringBuilder text = new StringBuilder("%Name   Food        Price\n");
+        int recordCount = 50000;
+        for (int i = 0; i < recordCount; i++) {
+            text.append(" Name").append(i % 10).append("  Food        ").append(i).append('\n');
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+
+        /*
+         * the first pass warms up the code, the second is measured
+         */
+        long[] allocated = new long[2];
+        for (int pass = 0; pass < 2; pass++) {
+            RowScanner scanner = new RowScanner(new ByteArrayInputStream(bytes), StandardCharsets.US_ASCII);
+            long before = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            long sum = 0;
+            while (scanner.next()) {
+                sum += ((StringBuffer) scanner.getRow().get(2)).length();
+            }
+            allocated[pass] = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+            assertThat(sum > 0, is(true));
+        }
+
+        assertThat("bytes allocated per record: " + allocated[1] / recordCount,
+            allocated[1] < recordCount, is(true));
+    }
+}
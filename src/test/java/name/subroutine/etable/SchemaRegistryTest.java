@@ -0,0 +1,110 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class SchemaRegistryTest {
+    private Etable load(String... lineList) {
+        Etable etable = new Etable();
+        etable.pushText(String.join("\n", lineList));
+        return etable;
+    }
+
+    @Test
+    public void shareSchemaOfSameHeader() {
+        Etable a = load("%Name   Food", "_Of", " Ann    Apple");
+        Etable b = load("%Name   Food", "_Of", " Bob    Banana");
+        Etable c = load("%Name  Food", " Carl  Cheese");
+
+        assertThat(a.schema, notNullValue());
+        assertThat(b.schema, sameInstance(a.schema));
+        assertThat(c.schema, not(sameInstance(a.schema)));
+        assertThat(b.getColumn(0), not(sameInstance(a.getColumn(0))));
+        assertThat(a.getColumn(0).getName(), is("NameOf"));
+        assertThat(a.getColumnList(), not(sameInstance(b.getColumnList())));
+        assertThat(a.freeze().getColumn(1), sameInstance(a.schema.getColumnList().get(1)));
+    }
+
+    @Test
+    public void lookUpNamesChangedThroughTheBuffer() {
+        Etable etable = load("%Name   Food", " Ann    Apple");
+
+        ((AbstractColumn) etable.getColumn(0)).name.append("X");
+        assertThat(etable.getColumn("NameX"), is(0));
+        assertThat(etable.getColumn("Name"), is(-1));
+        assertThat(etable.get(0).get("namex").toString(), is("Ann"));
+
+        ((AbstractColumn) etable.getColumn(1)).name = new StringBuffer("Fruit");
+        assertThat(etable.getColumn("Fruit"), is(1));
+        assertThat(etable.getColumn("Food"), is(-1));
+        assertThat(etable.get(0).get("Fruit").toString(), is("Apple"));
+    }
+
+    @Test
+    public void checkColumnListOncePerChange() {
+        Etable etable = load("%Name   Food", " Ann    Apple");
+        ColumnList columnList = (ColumnList) etable.columnList;
+
+        assertThat(etable.get(0).asMap().get("Food"), is("Apple"));
+        assertThat(columnList.checked, sameInstance(etable.schema));
+        int stamp = columnList.checkedStamp;
+        etable.get(0).asMap();
+        assertThat(columnList.checkedStamp, is(stamp));
+
+        etable.getColumn(1).setName("Fruit");
+        assertThat(etable.schema.matches(columnList), is(false));
+        assertThat(etable.get(0).asMap().get("Fruit"), is("Apple"));
+
+        Etable other = load("%Name   Food", " Bob    Banana");
+        ColumnList otherList = (ColumnList) other.columnList;
+        assertThat(other.schema.matches(otherList), is(true));
+        otherList.set(1, new EtableColumn("Food"));
+        assertThat(other.schema.matches(otherList), is(false));
+    }
+
+    @Test
+    public void lookUpColumnsThroughSchema() {
+        Etable etable = load("%Name   Food   Name", " Ann    Apple  Dup");
+
+        assertThat(etable.getColumn("FOOD"), is(1));
+        assertThat(etable.getColumn("name"), is(0));
+        assertThat(etable.get(0).get("food").toString(), is("Apple"));
+        assertThat(etable.getColumn("Price"), is(-1));
+
+        etable.delete("Name");
+        assertThat(etable.getColumn("Food"), is(0));
+        assertThat(etable.getColumn("Name"), is(1));
+    }
+
+    @Test
+    public void limitNumberOfSchemas() {
+        SchemaRegistry registry = new SchemaRegistry(1);
+        Schema first = registry.intern(Arrays.asList(new EtableColumn("A")));
+        Schema second = registry.intern(Arrays.asList(new EtableColumn("B")));
+
+        assertThat(registry.intern(Arrays.asList(new EtableColumn("A"))), sameInstance(first));
+        assertThat(registry.intern(Arrays.asList(new EtableColumn("B"))), not(sameInstance(second)));
+        assertThat(registry.size(), is(1));
+    }
+
+    @Test
+    public void cloneKeepsClassAndLayout() {
+        EtableColumn column = new EtableColumn("Price", 3);
+        column.setOffset(8);
+        column.setSize(6);
+
+        EtableColumn copy = (EtableColumn) column.clone();
+        copy.name.append("s");
+
+        assertThat(copy.getName(), is("Prices"));
+        assertThat(column.getName(), is("Price"));
+        assertThat(copy.getType(), is(3));
+        assertThat(copy.getOffset(), is(8));
+        assertThat(copy.getSize(), is(6));
+    }
+}
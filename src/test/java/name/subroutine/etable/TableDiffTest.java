@@ -0,0 +1,102 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+public class TableDiffTest {
+    private Etable table(String text) {
+        Etable etable = new Etable();
+        etable.pushText(text);
+        return etable;
+    }
+
+    @Test
+    public void insertDeleteUpdate() {
+        Etable before = table("%Id Name   Color\n"
+            + " 1  apple  red\n"
+            + " 2  pear   green\n"
+            + " 3  plum   purple\n");
+        Etable after = table("%Id Name   Color\n"
+            + " 3  plum   blue\n"
+            + " 1  apple  red\n"
+            + " 4  kiwi   brown\n");
+
+        TableDiff.ChangeSet changeSet = new TableDiff(new String[] { "Id" }).diff(before, after);
+
+        assertThat(changeSet.getInsertedList().size(), is(1));
+        assertThat(changeSet.getInsertedList().get(0).get("Name").toString(), is("kiwi"));
+        assertThat(changeSet.getDeletedList().size(), is(1));
+        assertThat(changeSet.getDeletedList().get(0).get("Name").toString(), is("pear"));
+        assertThat(changeSet.getUpdatedList().size(), is(1));
+
+        TableDiff.Change change = changeSet.getUpdatedList().get(0);
+        assertThat(change.getBefore().get("Color").toString(), is("purple"));
+        assertThat(change.getAfter().get("Color").toString(), is("blue"));
+        assertThat(change.getColumnList(), is(Arrays.asList("Color")));
+    }
+
+    @Test
+    public void columnsByName() {
+        Etable before = table("%Id Name   Color\n"
+            + " 1  apple  red\n");
+        Etable after = table("%Color Id Name   Size\n"
+            + " red    1  apple\n");
+        Etable sized = table("%Color Id Name   Size\n"
+            + " red    1  apple  big\n");
+
+        assertThat(new TableDiff(new String[] { "Id" }).diff(before, after).isEmpty(), is(true));
+
+        TableDiff.ChangeSet changeSet = new TableDiff(new String[] { "Id" }).diff(before, sized);
+        assertThat(changeSet.getUpdatedList().get(0).getColumnList(), is(Arrays.asList("Size")));
+    }
+
+    @Test
+    public void duplicateKeys() {
+        Etable before = table("%Id Name\n"
+            + " 1  a\n"
+            + " 1  b\n");
+        Etable after = table("%Id Name\n"
+            + " 1  a\n"
+            + " 1  c\n"
+            + " 1  d\n");
+
+        TableDiff.ChangeSet changeSet = new TableDiff(new String[] { "Id" }).diff(before, after);
+        assertThat(changeSet.getUpdatedList().size(), is(1));
+        assertThat(changeSet.getUpdatedList().get(0).getAfter().get("Name").toString(), is("c"));
+        assertThat(changeSet.getInsertedList().size(), is(1));
+        assertThat(changeSet.getDeletedList().size(), is(0));
+    }
+
+    @Test
+    public void equalHashesAreStillCompared() {
+        Etable before = table("%Id Name\n"
+            + " 1  apple\n");
+        Etable after = table("%Id Name\n"
+            + " 1  pear\n");
+
+        /*
+         * every record hashes the same, as if they all collided
+         */
+        TableDiff diff = new TableDiff(new String[] { "Id" }) {
+            long hash(Row row, int[] columnIdx) {
+                return 0;
+            }
+        };
+        TableDiff.ChangeSet changeSet = diff.diff(before, after);
+        assertThat(changeSet.getUpdatedList().size(), is(1));
+        assertThat(changeSet.getUpdatedList().get(0).getColumnList(), is(Arrays.asList("Name")));
+
+        diff.setTrustHash(true);
+        assertThat(diff.diff(before, after).isEmpty(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingKeyColumn() {
+        new TableDiff(new String[] { "Nope" }).diff(table("%Id\n 1\n"), table("%Id\n 1\n"));
+    }
+}
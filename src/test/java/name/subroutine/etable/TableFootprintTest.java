@@ -0,0 +1,71 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import java.lang.management.*;
+import javax.management.*;
+
+import org.junit.Test;
+
+public class TableFootprintTest {
+    private Etable table(int count) {
+        Etable etable = new Etable();
+        etable.pushColumn("Id");
+        etable.pushColumn("Color");
+        for (int i = 0; i < count; i++) {
+            etable.push(new String[] { Integer.toString(i), i % 2 == 0 ? "red" : "blue" });
+        }
+        return etable;
+    }
+
+    @Test
+    public void counts() {
+        TableFootprint footprint = TableFootprint.of(table(100), 0);
+
+        assertThat(footprint.getRowCount(), is(100L));
+        assertThat(footprint.getSampleCount(), is(100));
+        assertThat(footprint.getRowObjectCount(), is(100L));
+        assertThat(footprint.getStringBufferCount(), is(200L));
+        assertThat(footprint.getTotalBytes() > 0, is(true));
+        assertThat(footprint.getColumnList().get(0).getName(), is("Id"));
+        assertThat(footprint.getColumnList().get(0).getDuplicateRatio(), is(0.0));
+        assertThat(footprint.getColumnList().get(1).getDuplicateRatio(), is(0.98));
+        assertThat(footprint.getColumnList().get(1).getAverageCellLength(), is(3.5));
+    }
+
+    @Test
+    public void sampled() {
+        TableFootprint all = TableFootprint.of(table(10000), 0);
+        TableFootprint sampled = TableFootprint.of(table(10000), 100);
+
+        assertThat(sampled.getSampleCount(), is(100));
+        assertThat(sampled.getRowObjectCount(), is(10000L));
+        assertThat(Math.abs(sampled.getTotalBytes() - all.getTotalBytes()) < all.getTotalBytes() / 10, is(true));
+    }
+
+    @Test
+    public void frozenIsSmaller() {
+        Etable etable = table(1000);
+        long bytes = TableFootprint.of(etable).getTotalBytes();
+        TableFootprint frozen = TableFootprint.of(etable.freeze());
+
+        assertThat(frozen.getStringBufferCount(), is(0L));
+        assertThat(frozen.getWastedBytes(), is(0L));
+        assertThat(frozen.getTotalBytes() < bytes, is(true));
+    }
+
+    @Test
+    public void monitor() throws Exception {
+        TableMonitor monitor = new TableMonitor(() -> table(10));
+        ObjectName name = monitor.register("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertThat(server.getAttribute(name, "RowCount"), is((Object) 10L));
+            assertThat(((String[]) server.getAttribute(name, "ColumnNames"))[1], is("Color"));
+        } finally {
+            monitor.unregister();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class TableJoinTest {
+    private Etable unit = new Etable();
+    private Etable upgrade = new Etable();
+
+    public TableJoinTest() {
+        unit.pushLineList(new String[] {
+            "%Unit     Armor HP",
+            " marine   0     40",
+            " zealot   1     160",
+            " goliath  1     125",
+        });
+        upgrade.pushLineList(new String[] {
+            "%Unit     Level HP",
+            " marine   1     45",
+            " marine   2     50",
+            " goliath  1     150",
+            " wraith   1     130",
+        });
+    }
+
+    @Test
+    public void innerJoin() {
+        Table result = unit.join(upgrade, new String[] { "Unit" }, TableJoin.INNER);
+
+        assertThat(result.getColumnCount(), is(5));
+        assertThat(result.getColumn(3).getName(), is("Level"));
+        assertThat(result.getColumn(4).getName(), is("HP_2"));
+        assertThat(result.getRowCount(), is(3));
+        assertThat(result.get(0).toArray(), is(new String[] { "marine", "0", "40", "1", "45" }));
+        assertThat(result.get(1).toArray(), is(new String[] { "marine", "0", "40", "2", "50" }));
+        assertThat(result.get(2).toArray(), is(new String[] { "goliath", "1", "125", "1", "150" }));
+    }
+
+    @Test
+    public void leftJoin() {
+        Table result = unit.join(upgrade, new String[] { "Unit" }, TableJoin.LEFT);
+
+        assertThat(result.getRowCount(), is(4));
+        assertThat(result.get(2).toArray(), is(new String[] { "zealot", "1", "160", "", "" }));
+        assertThat(result.get(3).get("HP_2").toString(), is("150"));
+    }
+
+    @Test
+    public void leftJoinHashingTheLeftTable() {
+        Table result = upgrade.join(unit, new String[] { "Unit" }, TableJoin.LEFT);
+
+        assertThat(result.getRowCount(), is(4));
+        assertThat(result.get(0).toArray(), is(new String[] { "marine", "1", "45", "0", "40" }));
+        assertThat(result.get(3).toArray(), is(new String[] { "wraith", "1", "130", "", "" }));
+    }
+
+    @Test
+    public void semiJoin() {
+        Table result = upgrade.join(unit, new String[] { "Unit" }, TableJoin.SEMI);
+
+        assertThat(result.getColumnCount(), is(3));
+        assertThat(result.getRowCount(), is(3));
+        assertThat(result.get(2).get("Unit").toString(), is("goliath"));
+
+        result = unit.join(upgrade, new String[] { "Unit" }, TableJoin.SEMI);
+        assertThat(result.getRowCount(), is(2));
+        assertThat(result.get(1).get("Unit").toString(), is("goliath"));
+    }
+
+    @Test
+    public void joinOnDifferentColumns() {
+        Table result = new TableJoin(new String[] { "Armor" }, new String[] { "Level" },
+            TableJoin.INNER).join(unit, upgrade);
+
+        assertThat(result.getRowCount(), is(6));
+        assertThat(result.getColumn(3).getName(), is("Unit_2"));
+        assertThat(result.get(0).toArray(), is(new String[] { "zealot", "1", "160", "marine", "45" }));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownColumn() {
+        upgrade.join(unit, new String[] { "Nope" }, TableJoin.INNER);
+    }
+}
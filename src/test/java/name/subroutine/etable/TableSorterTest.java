@@ -0,0 +1,94 @@
+package name.subroutine.etable;
+
+import static org.hamcrest.MatcherAssert.*;
+
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class TableSorterTest {
+    private Etable etable = new Etable();
+
+    private void pushUnits() {
+        etable.pushLineList(new String[] {
+            "%Unit     Size   Food Mineral",
+            " battle   L      8    400",
+            "_cruiser",
+            " marine   S      1    50",
+            " Zealot   S      2    100",
+            " archon   L      4    upg",
+            " goliath  L      2    100",
+        });
+    }
+
+    private String[] units() {
+        String[] list = new String[etable.getRowCount()];
+        for (int i = 0; i < list.length; i++) {
+            list[i] = etable.get(i).get("Unit").toString();
+        }
+        return list;
+    }
+
+    @Test
+    public void sortNatural() {
+        pushUnits();
+        etable.sort(new String[] { "Unit" }, TableSorter.NATURAL);
+
+        assertThat(units(), is(new String[] {
+            "Zealot", "archon", "battlecruiser", "goliath", "marine",
+        }));
+    }
+
+    @Test
+    public void sortCaseInsensitive() {
+        pushUnits();
+        etable.sort(new String[] { "Unit" }, TableSorter.CASE_INSENSITIVE);
+
+        assertThat(units(), is(new String[] {
+            "archon", "battlecruiser", "goliath", "marine", "Zealot",
+        }));
+    }
+
+    @Test
+    public void sortNumericDescendingIsStable() {
+        pushUnits();
+        etable.sort(new String[] { "Mineral" }, TableSorter.NUMERIC | TableSorter.DESCENDING);
+
+        // "upg" is not a number, so it sorts after the numbers in either direction
+        assertThat(units(), is(new String[] {
+            "battlecruiser", "Zealot", "goliath", "marine", "archon",
+        }));
+    }
+
+    @Test
+    public void sortByMultipleColumns() {
+        pushUnits();
+        etable.sort(new String[] { "Size", "Food" },
+            new int[] { TableSorter.NATURAL, TableSorter.NUMERIC });
+
+        assertThat(units(), is(new String[] {
+            "goliath", "archon", "battlecruiser", "marine", "Zealot",
+        }));
+    }
+
+    @Test
+    public void sortExternally() {
+        pushUnits();
+        new TableSorter(new String[] { "Food", "Unit" },
+            new int[] { TableSorter.NUMERIC, TableSorter.NATURAL })
+            .setMemoryLimit(1)
+            .sort(etable);
+
+        assertThat(units(), is(new String[] {
+            "marine", "Zealot", "goliath", "archon", "battlecruiser",
+        }));
+        assertThat(etable.get(4).get("Mineral").toString(), is("400"));
+        assertThat(etable.get(4).getColumnCount(), is(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownColumn() {
+        pushUnits();
+        etable.sort(new String[] { "Nope" }, TableSorter.NATURAL);
+    }
+}